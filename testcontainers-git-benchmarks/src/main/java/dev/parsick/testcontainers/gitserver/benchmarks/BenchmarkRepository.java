@@ -0,0 +1,85 @@
+package dev.parsick.testcontainers.gitserver.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.revwalk.RevCommit;
+
+/** Local git repositories with generated content for the benchmarks. */
+final class BenchmarkRepository {
+
+  static final String BRANCH = "main";
+
+  private BenchmarkRepository() {}
+
+  /**
+   * Create a git repository with the given size. The content only depends on the size, so that
+   * every run of a benchmark pushes the same objects.
+   *
+   * @param directory - empty directory for the repository
+   * @param repoSize - size of the repository
+   * @return git repository
+   */
+  static Git create(Path directory, RepoSize repoSize) throws GitAPIException, IOException {
+    Git git = Git.init().setDirectory(directory.toFile()).setInitialBranch(BRANCH).call();
+    Random random = new Random(repoSize.ordinal());
+    for (int i = 0; i < repoSize.getCommits(); i++) {
+      commit(git, random, repoSize);
+    }
+    return git;
+  }
+
+  /**
+   * Change some files of the repository and commit them. Existing files keep most of their
+   * content, only a sixteenth of it is replaced.
+   *
+   * @param git - git repository
+   * @param random - source of the file names and contents
+   * @param repoSize - size of the repository, defines the number and size of the changed files
+   * @return new commit
+   */
+  static RevCommit commit(Git git, Random random, RepoSize repoSize)
+      throws GitAPIException, IOException {
+    Path workTree = git.getRepository().getWorkTree().toPath();
+    for (int i = 0; i < repoSize.getFilesPerCommit(); i++) {
+      // files are changed again in later commits, so the history contains deltas
+      int fileNumber = random.nextInt(repoSize.getFilesPerCommit() * 4);
+      Path file = workTree.resolve("file-" + fileNumber + ".bin");
+      byte[] content;
+      if (Files.exists(file)) {
+        content = Files.readAllBytes(file);
+        byte[] change = new byte[Math.max(1, content.length / 16)];
+        random.nextBytes(change);
+        int offset = random.nextInt(content.length - change.length + 1);
+        System.arraycopy(change, 0, content, offset, change.length);
+      } else {
+        content = new byte[repoSize.getFileSize()];
+        random.nextBytes(content);
+      }
+      Files.write(file, content);
+    }
+    git.add().addFilepattern(".").call();
+    return git.commit().setMessage("benchmark commit").setSign(false).call();
+  }
+
+  /**
+   * Delete a directory with all its content.
+   *
+   * @param directory - directory to delete
+   */
+  static void delete(Path directory) throws IOException {
+    if (directory == null || !Files.exists(directory)) {
+      return;
+    }
+    try (Stream<Path> paths = Files.walk(directory)) {
+      for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+        Files.delete(path);
+      }
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package dev.parsick.testcontainers.gitserver.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Full clone of the benchmark repository.
+ *
+ * <p>The clone does not check out the working tree, so the measurement covers the server and the
+ * transfer of the pack, but not the local file system.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class CloneBenchmark {
+
+  private Path cloneDirectory;
+
+  /** Create an empty directory for the next clone. */
+  @Setup(Level.Invocation)
+  public void createCloneDirectory() throws IOException {
+    cloneDirectory = Files.createTempDirectory("benchmark-clone");
+  }
+
+  /** Delete the clone. */
+  @TearDown(Level.Invocation)
+  public void deleteCloneDirectory() throws IOException {
+    BenchmarkRepository.delete(cloneDirectory);
+  }
+
+  /**
+   * Clone the repository.
+   *
+   * @param state - git server of the trial
+   */
+  @Benchmark
+  public void cloneRepository(GitServerState state) throws GitAPIException {
+    GitServerFixture server = state.getServer();
+    server
+        .authenticate(Git.cloneRepository())
+        .setURI(server.getGitRepoURI().toString())
+        .setBranch(BenchmarkRepository.BRANCH)
+        .setNoCheckout(true)
+        .setDirectory(cloneDirectory.toFile())
+        .call()
+        .close();
+  }
+}
@@ -0,0 +1,87 @@
+package dev.parsick.testcontainers.gitserver.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.transport.FetchResult;
+import org.eclipse.jgit.transport.RefSpec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Incremental fetch of one new commit into an existing clone.
+ *
+ * <p>Before each fetch a second clone pushes a new commit to a branch of the benchmark thread. Only
+ * the fetch of this commit is measured.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class FetchBenchmark {
+
+  private final Random random = new Random(0);
+  private Path workDirectory;
+  private Git clone;
+  private Git pusher;
+  private RefSpec pushRefSpec;
+
+  /**
+   * Clone the repository twice, one clone fetches and the other pushes the new commits.
+   *
+   * @param state - git server of the trial
+   */
+  @Setup(Level.Trial)
+  public void cloneRepository(GitServerState state) throws GitAPIException, IOException {
+    workDirectory = Files.createTempDirectory("benchmark-fetch");
+    clone = state.cloneTo(workDirectory.resolve("clone"));
+    pusher = state.cloneTo(workDirectory.resolve("pusher"));
+    pushRefSpec = new RefSpec("refs/heads/main:refs/heads/" + state.nextBranch());
+  }
+
+  /**
+   * Push a new commit that the next fetch has to transfer.
+   *
+   * @param state - git server of the trial
+   */
+  @Setup(Level.Invocation)
+  public void pushNewCommit(GitServerState state) throws GitAPIException, IOException {
+    BenchmarkRepository.commit(pusher, random, state.repoSize);
+    state.getServer().authenticate(pusher.push()).setRefSpecs(pushRefSpec).call();
+  }
+
+  /** Delete the clones. */
+  @TearDown(Level.Trial)
+  public void deleteClones() throws IOException {
+    clone.close();
+    pusher.close();
+    BenchmarkRepository.delete(workDirectory);
+  }
+
+  /**
+   * Fetch the new commit.
+   *
+   * @param state - git server of the trial
+   * @return result of the fetch
+   */
+  @Benchmark
+  public FetchResult fetch(GitServerState state) throws GitAPIException {
+    return state.getServer().authenticate(clone.fetch()).call();
+  }
+}
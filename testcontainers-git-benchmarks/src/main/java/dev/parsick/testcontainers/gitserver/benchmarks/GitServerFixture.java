@@ -0,0 +1,115 @@
+package dev.parsick.testcontainers.gitserver.benchmarks;
+
+import com.jcraft.jsch.JSch;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+import java.net.URI;
+import org.eclipse.jgit.api.TransportCommand;
+import org.eclipse.jgit.api.TransportConfigCallback;
+import org.eclipse.jgit.transport.CredentialsProvider;
+import org.eclipse.jgit.transport.SshSessionFactory;
+import org.eclipse.jgit.transport.SshTransport;
+import org.eclipse.jgit.transport.UsernamePasswordCredentialsProvider;
+import org.eclipse.jgit.transport.ssh.jsch.JschConfigSessionFactory;
+import org.eclipse.jgit.transport.ssh.jsch.OpenSshConfig;
+import org.eclipse.jgit.util.FS;
+import org.testcontainers.containers.GenericContainer;
+
+/** A started git server container with the URI and credentials of its benchmark repository. */
+final class GitServerFixture implements AutoCloseable {
+
+  private final GenericContainer<?> container;
+  private final URI gitRepoUri;
+  private final CredentialsProvider credentialsProvider;
+  private final TransportConfigCallback transportConfigCallback;
+
+  private GitServerFixture(
+      GenericContainer<?> container,
+      URI gitRepoUri,
+      CredentialsProvider credentialsProvider,
+      TransportConfigCallback transportConfigCallback) {
+    this.container = container;
+    this.gitRepoUri = gitRepoUri;
+    this.credentialsProvider = credentialsProvider;
+    this.transportConfigCallback = transportConfigCallback;
+  }
+
+  /**
+   * Fixture for a repository that is served via HTTP.
+   *
+   * @param container - started container
+   * @param gitRepoUri - HTTP URI of the repository
+   * @param userName - user for basic authentication, null if no authentication is needed
+   * @param password - password for basic authentication
+   * @return fixture
+   */
+  static GitServerFixture http(
+      GenericContainer<?> container, URI gitRepoUri, String userName, String password) {
+    CredentialsProvider credentialsProvider =
+        userName != null ? new UsernamePasswordCredentialsProvider(userName, password) : null;
+    return new GitServerFixture(container, gitRepoUri, credentialsProvider, null);
+  }
+
+  /**
+   * Fixture for a repository that is served via SSH with public key authentication.
+   *
+   * @param container - started container
+   * @param gitRepoUri - SSH URI of the repository
+   * @param privateKey - private key of the client
+   * @param publicKey - public key of the client
+   * @param passphrase - passphrase of the private key
+   * @return fixture
+   */
+  static GitServerFixture ssh(
+      GenericContainer<?> container,
+      URI gitRepoUri,
+      byte[] privateKey,
+      byte[] publicKey,
+      byte[] passphrase) {
+    // one session factory for all commands, so that JSch parses the key only once
+    SshSessionFactory sshSessionFactory =
+        new JschConfigSessionFactory() {
+          @Override
+          protected void configure(OpenSshConfig.Host hc, Session session) {
+            session.setConfig("StrictHostKeyChecking", "no");
+          }
+
+          @Override
+          protected JSch createDefaultJSch(FS fs) throws JSchException {
+            // no identities and known hosts of the user, they would only slow down the login
+            JSch jsch = new JSch();
+            jsch.addIdentity("testcontainers-git", privateKey, publicKey, passphrase);
+            return jsch;
+          }
+        };
+    return new GitServerFixture(
+        container,
+        gitRepoUri,
+        null,
+        transport -> ((SshTransport) transport).setSshSessionFactory(sshSessionFactory));
+  }
+
+  /**
+   * @return URI of the benchmark repository
+   */
+  URI getGitRepoURI() {
+    return gitRepoUri;
+  }
+
+  /**
+   * Configure the authentication of a git command against this server.
+   *
+   * @param command - clone, fetch or push command
+   * @return the given command
+   */
+  <C extends TransportCommand<C, ?>> C authenticate(C command) {
+    return command
+        .setCredentialsProvider(credentialsProvider)
+        .setTransportConfigCallback(transportConfigCallback);
+  }
+
+  @Override
+  public void close() {
+    container.stop();
+  }
+}
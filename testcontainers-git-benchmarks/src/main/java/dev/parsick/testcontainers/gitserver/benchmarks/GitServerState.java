@@ -0,0 +1,92 @@
+package dev.parsick.testcontainers.gitserver.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.transport.RefSpec;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Git server that is shared by all benchmark threads of a trial.
+ *
+ * <p>The container is started once per trial and gets a repository of the chosen size, so the
+ * container start is not part of the measurement. Without {@code -p} JMH runs every combination of
+ * {@link GitServerTarget} and {@link RepoSize}.
+ */
+@State(Scope.Benchmark)
+public class GitServerState {
+
+  /** Git server container and protocol under benchmark. */
+  @Param public GitServerTarget target;
+
+  /** Size of the repository on the git server. */
+  @Param public RepoSize repoSize;
+
+  private final AtomicInteger branchCounter = new AtomicInteger();
+  private GitServerFixture server;
+  private Path seedDirectory;
+
+  /** Start the git server and push the generated repository. */
+  @Setup(Level.Trial)
+  public void startServer() throws GitAPIException, IOException {
+    seedDirectory = Files.createTempDirectory("benchmark-seed");
+    server = target.start();
+    try (Git seed = BenchmarkRepository.create(seedDirectory, repoSize)) {
+      // Gitea and Forgejo may have initialized the branch already
+      server
+          .authenticate(seed.push())
+          .setRemote(server.getGitRepoURI().toString())
+          .setRefSpecs(new RefSpec("+refs/heads/main:refs/heads/main"))
+          .call();
+    }
+  }
+
+  /** Stop the git server. */
+  @TearDown(Level.Trial)
+  public void stopServer() throws IOException {
+    if (server != null) {
+      server.close();
+    }
+    BenchmarkRepository.delete(seedDirectory);
+  }
+
+  /**
+   * Clone the repository of the git server.
+   *
+   * @param directory - empty directory for the clone
+   * @return cloned repository
+   */
+  Git cloneTo(Path directory) throws GitAPIException {
+    return server
+        .authenticate(Git.cloneRepository())
+        .setURI(server.getGitRepoURI().toString())
+        .setBranch(BenchmarkRepository.BRANCH)
+        .setDirectory(directory.toFile())
+        .call();
+  }
+
+  /**
+   * Return a branch name that no other benchmark thread uses, so that concurrent pushes are not
+   * rejected as non fast-forward.
+   *
+   * @return unique branch name
+   */
+  String nextBranch() {
+    return "benchmark-" + branchCounter.incrementAndGet();
+  }
+
+  /**
+   * @return git server of this trial
+   */
+  GitServerFixture getServer() {
+    return server;
+  }
+}
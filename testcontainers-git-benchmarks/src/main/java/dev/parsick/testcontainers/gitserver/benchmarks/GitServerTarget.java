@@ -0,0 +1,125 @@
+package dev.parsick.testcontainers.gitserver.benchmarks;
+
+import dev.parsick.testcontainers.gitserver.GitServerVersions;
+import dev.parsick.testcontainers.gitserver.forgejo.ForgejoContainer;
+import dev.parsick.testcontainers.gitserver.forgejo.ForgejoVersions;
+import dev.parsick.testcontainers.gitserver.gitea.GiteaContainer;
+import dev.parsick.testcontainers.gitserver.gitea.GiteaVersions;
+import dev.parsick.testcontainers.gitserver.http.GitHttpServerContainer;
+import dev.parsick.testcontainers.gitserver.plain.GitServerContainer;
+
+/**
+ * Git server container and protocol under benchmark.
+ *
+ * <p>Each target starts the newest supported version of its container with one repository named
+ * {@value #GIT_REPO_NAME}.
+ */
+public enum GitServerTarget {
+
+  /** {@link GitServerContainer} via SSH */
+  GIT_SERVER_SSH {
+    @Override
+    GitServerFixture start() {
+      GitServerContainer container =
+          new GitServerContainer(GitServerVersions.V2_52.getDockerImageName())
+              .withGitRepo(GIT_REPO_NAME)
+              .withSshKeyAuth();
+      container.start();
+      return GitServerFixture.ssh(
+          container,
+          container.getGitRepoURIAsSSH(),
+          container.getSshClientIdentity().getPrivateKey(),
+          container.getSshClientIdentity().getPublicKey(),
+          container.getSshClientIdentity().getPassphrase());
+    }
+  },
+
+  /** {@link GitHttpServerContainer} via HTTP */
+  GIT_SERVER_HTTP {
+    @Override
+    GitServerFixture start() {
+      GitHttpServerContainer container =
+          new GitHttpServerContainer(GitServerVersions.V2_52.getDockerImageName())
+              .withGitRepo(GIT_REPO_NAME);
+      container.start();
+      return GitServerFixture.http(container, container.getGitRepoURIAsHttp(), null, null);
+    }
+  },
+
+  /** {@link GiteaContainer} via SSH */
+  GITEA_SSH {
+    @Override
+    GitServerFixture start() {
+      GiteaContainer container =
+          new GiteaContainer(GiteaVersions.V1_26_2.getDockerImageName())
+              .withGitRepo(GIT_REPO_NAME)
+              .withSshKeyAuth();
+      container.start();
+      return GitServerFixture.ssh(
+          container,
+          container.getGitRepoURIAsSSH(),
+          container.getSshClientIdentity().getPrivateKeyAsBytes(),
+          container.getSshClientIdentity().getPublicKeyAsBytes(),
+          container.getSshClientIdentity().getPassphrase());
+    }
+  },
+
+  /** {@link GiteaContainer} via HTTP */
+  GITEA_HTTP {
+    @Override
+    GitServerFixture start() {
+      GiteaContainer container =
+          new GiteaContainer(GiteaVersions.V1_26_2.getDockerImageName())
+              .withGitRepo(GIT_REPO_NAME);
+      container.start();
+      return GitServerFixture.http(
+          container,
+          container.getGitRepoURIAsHTTP(),
+          container.getUserName(),
+          container.getUserPassword());
+    }
+  },
+
+  /** {@link ForgejoContainer} via SSH */
+  FORGEJO_SSH {
+    @Override
+    GitServerFixture start() {
+      ForgejoContainer container =
+          new ForgejoContainer(ForgejoVersions.V15_0_2.getDockerImageName())
+              .withGitRepo(GIT_REPO_NAME)
+              .withSshKeyAuth();
+      container.start();
+      return GitServerFixture.ssh(
+          container,
+          container.getGitRepoURIAsSSH(),
+          container.getSshClientIdentity().getPrivateKeyAsBytes(),
+          container.getSshClientIdentity().getPublicKeyAsBytes(),
+          container.getSshClientIdentity().getPassphrase());
+    }
+  },
+
+  /** {@link ForgejoContainer} via HTTP */
+  FORGEJO_HTTP {
+    @Override
+    GitServerFixture start() {
+      ForgejoContainer container =
+          new ForgejoContainer(ForgejoVersions.V15_0_2.getDockerImageName())
+              .withGitRepo(GIT_REPO_NAME);
+      container.start();
+      return GitServerFixture.http(
+          container,
+          container.getGitRepoURIAsHTTP(),
+          container.getUserName(),
+          container.getUserPassword());
+    }
+  };
+
+  static final String GIT_REPO_NAME = "benchmark-repo";
+
+  /**
+   * Start the container of this target.
+   *
+   * @return started container with the URI and credentials of the benchmark repository
+   */
+  abstract GitServerFixture start();
+}
@@ -0,0 +1,83 @@
+package dev.parsick.testcontainers.gitserver.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.transport.PushResult;
+import org.eclipse.jgit.transport.RefSpec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Push of one new commit from an existing clone.
+ *
+ * <p>Each benchmark thread pushes to its own branch, so that concurrent pushes are fast-forwards.
+ * The commit is created before the push and is not part of the measurement.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class PushBenchmark {
+
+  private final Random random = new Random(0);
+  private Path workDirectory;
+  private Git clone;
+  private RefSpec pushRefSpec;
+
+  /**
+   * Clone the repository.
+   *
+   * @param state - git server of the trial
+   */
+  @Setup(Level.Trial)
+  public void cloneRepository(GitServerState state) throws GitAPIException, IOException {
+    workDirectory = Files.createTempDirectory("benchmark-push");
+    clone = state.cloneTo(workDirectory.resolve("clone"));
+    pushRefSpec = new RefSpec("refs/heads/main:refs/heads/" + state.nextBranch());
+  }
+
+  /**
+   * Create the commit for the next push.
+   *
+   * @param state - git server of the trial
+   */
+  @Setup(Level.Invocation)
+  public void createCommit(GitServerState state) throws GitAPIException, IOException {
+    BenchmarkRepository.commit(clone, random, state.repoSize);
+  }
+
+  /** Delete the clone. */
+  @TearDown(Level.Trial)
+  public void deleteClone() throws IOException {
+    clone.close();
+    BenchmarkRepository.delete(workDirectory);
+  }
+
+  /**
+   * Push the new commit.
+   *
+   * @param state - git server of the trial
+   * @return result of the push
+   */
+  @Benchmark
+  public Iterable<PushResult> push(GitServerState state) throws GitAPIException {
+    return state.getServer().authenticate(clone.push()).setRefSpecs(pushRefSpec).call();
+  }
+}
@@ -0,0 +1,50 @@
+package dev.parsick.testcontainers.gitserver.benchmarks;
+
+/**
+ * Size of the git repository that is pushed to the git server before a benchmark.
+ *
+ * <p>The files have random content, so that git can not compress them and the pack size grows
+ * with the number of commits.
+ */
+public enum RepoSize {
+
+  /** 10 commits with 5 files of 1 KiB each, about 50 KiB */
+  SMALL(10, 5, 1024),
+
+  /** 200 commits with 10 files of 4 KiB each, about 8 MiB */
+  MEDIUM(200, 10, 4096),
+
+  /** 1000 commits with 20 files of 2 KiB each, about 40 MiB */
+  LARGE(1000, 20, 2048);
+
+  private final int commits;
+  private final int filesPerCommit;
+  private final int fileSize;
+
+  RepoSize(int commits, int filesPerCommit, int fileSize) {
+    this.commits = commits;
+    this.filesPerCommit = filesPerCommit;
+    this.fileSize = fileSize;
+  }
+
+  /**
+   * @return number of commits
+   */
+  public int getCommits() {
+    return commits;
+  }
+
+  /**
+   * @return number of files that are changed by each commit
+   */
+  public int getFilesPerCommit() {
+    return filesPerCommit;
+  }
+
+  /**
+   * @return size of each file in bytes
+   */
+  public int getFileSize() {
+    return fileSize;
+  }
+}
@@ -1,10 +1,16 @@
 package dev.parsick.testcontainers.gitserver.gitea;
 
 import com.github.dockerjava.api.command.InspectContainerResponse;
+import dev.parsick.testcontainers.gitserver.GitRepositoryCommands;
+import dev.parsick.testcontainers.gitserver.InMemoryStorage;
+import dev.parsick.testcontainers.gitserver.StartupTimeline;
+import dev.parsick.testcontainers.gitserver.StartupTimelineRecorder;
+import dev.parsick.testcontainers.gitserver.plain.SshKeyGenerator;
+import dev.parsick.testcontainers.gitserver.plain.SshKeyType;
 import java.io.IOException;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
-import org.apache.commons.io.IOUtils;
+import java.util.function.Consumer;
 import org.apache.commons.lang3.StringUtils;
 import org.openapitools.client.ApiClient;
 import org.openapitools.client.ApiException;
@@ -23,11 +29,20 @@ import org.testcontainers.utility.MountableFile;
 public class GiteaContainer extends GenericContainer<GiteaContainer> {
 
   private static DockerImageName DEFAULT_DOCKER_IMAGE_NAME = DockerImageName.parse("gitea/gitea");
+  private static final String CONFIGURE_ADMIN_USER_PHASE = "configure-admin-user";
+  private static final String CONFIGURE_GIT_REPOSITORY_PHASE = "configure-git-repository";
+  private static final String CONFIGURE_SSH_KEY_AUTH_PHASE = "configure-ssh-key-auth";
+  private static final String DATA_PATH = "/data";
+  private static final String IMPORT_STAGING_PATH = "/tmp/git-import";
   private String gitRepoName = "testRepo";
   private String userPassword = "init123";
   private String userName = "gituser";
   private SshIdentity sshClientIdentity;
   private String pathToExistingRepo;
+  private boolean inMemoryStorage;
+  private final StartupTimelineRecorder startupTimelineRecorder = new StartupTimelineRecorder();
+  private StartupTimeline startupTimeline;
+  private Consumer<StartupTimeline> startupTimelineListener;
 
   /**
    * Creates a new {@code giteaContainer} with the given Docker image.
@@ -86,21 +101,36 @@ public class GiteaContainer extends GenericContainer<GiteaContainer> {
   /**
    * Enabled SSH public key authentication.
    *
+   * <p>An ECDSA key pair is generated once per JVM, see {@link #withSshKeyAuth(SshKeyType)}.
+   *
    * @return instance of the git server container
    */
   public GiteaContainer withSshKeyAuth() {
-    try {
-      sshClientIdentity =
-          new SshIdentity(
-              IOUtils.resourceToString("/id_client", StandardCharsets.UTF_8),
-              IOUtils.resourceToString("/id_client.pub", StandardCharsets.UTF_8),
-              new byte[0]);
-    } catch (IOException e) {
-      throw new RuntimeException(e);
-    }
+    return withSshKeyAuth(SshKeyType.ECDSA_P256);
+  }
+
+  /**
+   * Enabled SSH public key authentication with a key pair of the given algorithm.
+   *
+   * <p>The key pair is generated in the JVM once per algorithm and reused by all containers of the
+   * JVM. Its public key is registered for the init user via the Gitea API.
+   *
+   * @param keyType - algorithm of the client key pair
+   * @return instance of the gitea container
+   */
+  public GiteaContainer withSshKeyAuth(SshKeyType keyType) {
+    sshClientIdentity = toSshIdentity(SshKeyGenerator.cached(keyType));
     return this;
   }
 
+  private static SshIdentity toSshIdentity(
+      dev.parsick.testcontainers.gitserver.plain.SshIdentity identity) {
+    return new SshIdentity(
+        new String(identity.getPrivateKey(), StandardCharsets.US_ASCII),
+        new String(identity.getPublicKey(), StandardCharsets.US_ASCII),
+        identity.getPassphrase());
+  }
+
   /**
    * Copy an existing git repository to the container.
    *
@@ -120,6 +150,48 @@ public class GiteaContainer extends GenericContainer<GiteaContainer> {
     return this;
   }
 
+  /**
+   * Store the data of Gitea, e.g. the git repositories and the database, in memory instead of the
+   * file system of the container.
+   *
+   * <p>{@code /data} is mounted as tmpfs, so that push-heavy tests do not depend on the disk of the
+   * docker host. The data is lost when the container stops.
+   *
+   * @param sizeLimit - maximum size of the data with an optional unit {@code k}, {@code m} or
+   *     {@code g}, e.g. {@code 512m}
+   * @return instance of the gitea container
+   */
+  public GiteaContainer withInMemoryStorage(String sizeLimit) {
+    withTmpFs(InMemoryStorage.tmpfs(DATA_PATH, sizeLimit));
+    this.inMemoryStorage = true;
+    return this;
+  }
+
+  /**
+   * Pass the startup timeline to the given listener after each start, e.g. to publish the phase
+   * durations as metrics.
+   *
+   * <p>The timeline is also logged at debug level.
+   *
+   * @param startupTimelineListener - listener that receives the timeline of each start
+   * @return instance of the gitea container
+   */
+  public GiteaContainer withStartupTimelineListener(
+      Consumer<StartupTimeline> startupTimelineListener) {
+    this.startupTimelineListener = startupTimelineListener;
+    return this;
+  }
+
+  /**
+   * Return the durations of the phases of the last start: configuration, image pull, creation,
+   * start and wait strategy of the container, and the setup of admin user, repository and SSH key.
+   *
+   * @return startup timeline or null if the container is not started yet
+   */
+  public StartupTimeline getStartupTimeline() {
+    return startupTimeline;
+  }
+
   /**
    * Return the SSH URI for git repo.
    *
@@ -194,12 +266,50 @@ public class GiteaContainer extends GenericContainer<GiteaContainer> {
     return this.userPassword;
   }
 
+  @Override
+  protected void configure() {
+    startupTimelineRecorder.begin();
+    super.configure();
+    startupTimelineRecorder.lap(StartupTimeline.CONFIGURE_PHASE);
+    // resolve the image here, so that the pull is not part of the create phase
+    getDockerImageName();
+    startupTimelineRecorder.lap(StartupTimeline.IMAGE_PHASE);
+  }
+
+  @Override
+  protected void containerIsCreated(String containerId) {
+    super.containerIsCreated(containerId);
+    startupTimelineRecorder.lap(StartupTimeline.CREATE_PHASE);
+  }
+
+  @Override
+  protected void containerIsStarting(InspectContainerResponse containerInfo) {
+    super.containerIsStarting(containerInfo);
+    startupTimelineRecorder.lap(StartupTimeline.START_PHASE);
+  }
+
+  @Override
+  protected void waitUntilContainerStarted() {
+    super.waitUntilContainerStarted();
+    startupTimelineRecorder.lap(StartupTimeline.WAIT_PHASE);
+  }
+
   @Override
   protected void containerIsStarted(InspectContainerResponse containerInfo) {
     super.containerIsStarted(containerInfo);
     configureAdminUser();
+    startupTimelineRecorder.lap(CONFIGURE_ADMIN_USER_PHASE);
     configureGitRepository();
-    configureSshKeyAuth();
+    startupTimelineRecorder.lap(CONFIGURE_GIT_REPOSITORY_PHASE);
+    if (sshClientIdentity != null) {
+      configureSshKeyAuth();
+      startupTimelineRecorder.lap(CONFIGURE_SSH_KEY_AUTH_PHASE);
+    }
+    startupTimeline = startupTimelineRecorder.finish();
+    logger().debug("Startup timeline of {}: {}", getDockerImageName(), startupTimeline);
+    if (startupTimelineListener != null) {
+      startupTimelineListener.accept(startupTimeline);
+    }
   }
 
   private void configureSshKeyAuth() {
@@ -270,7 +380,16 @@ public class GiteaContainer extends GenericContainer<GiteaContainer> {
     String gitRepoPath = String.format("/data/git/repositories/%s/%s.git/", userName, gitRepoName);
     try {
       execInContainer("mkdir", "-p", gitRepoPath);
-      copyFileToContainer(MountableFile.forHostPath(pathToExistingRepo + "/.git"), gitRepoPath);
+      if (inMemoryStorage) {
+        copyFileToContainer(
+            MountableFile.forHostPath(pathToExistingRepo + "/.git"), IMPORT_STAGING_PATH);
+        execInContainer(
+            "sh",
+            "-c",
+            GitRepositoryCommands.moveStagedRepository(IMPORT_STAGING_PATH, gitRepoPath));
+      } else {
+        copyFileToContainer(MountableFile.forHostPath(pathToExistingRepo + "/.git"), gitRepoPath);
+      }
       execInContainer("chown", "-R", "git:git", gitRepoPath);
       adoptImportedGitRepository();
     } catch (IOException | ApiException | InterruptedException e) {
@@ -7,10 +7,12 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import com.jcraft.jsch.JSch;
 import com.jcraft.jsch.JSchException;
 import com.jcraft.jsch.Session;
+import dev.parsick.testcontainers.gitserver.StartupTimeline;
 import java.io.File;
 import java.io.IOException;
 import java.net.URI;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 import org.apache.commons.io.FileUtils;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.TransportConfigCallback;
@@ -142,6 +144,61 @@ class GiteaContainerTest {
                     .call());
   }
 
+  @Test
+  void copyExistingGitRepoToInMemoryStorage(@TempDir File sampleRepo)
+      throws GitAPIException, IOException {
+    initSampleRepo(sampleRepo, "src/test/resources/sampleRepo/testFile");
+
+    var containerUnderTest =
+        new GiteaContainer(LATEST_GITEA_IMAGE)
+            .withGitRepo("testrepo")
+            .withInMemoryStorage("256m")
+            .withCopyExistingGitRepoToContainer(sampleRepo.getAbsolutePath());
+
+    containerUnderTest.start();
+
+    URI gitRepoURI = containerUnderTest.getGitRepoURIAsHTTP();
+
+    assertThatNoException()
+        .isThrownBy(
+            () ->
+                Git.cloneRepository()
+                    .setURI(gitRepoURI.toString())
+                    .setDirectory(tempDir)
+                    .setBranch("main")
+                    .setCredentialsProvider(
+                        new UsernamePasswordCredentialsProvider(
+                            containerUnderTest.getUserName(), containerUnderTest.getUserPassword()))
+                    .call());
+
+    assertThat(new File(tempDir, "testFile")).exists();
+  }
+
+  @Test
+  void startupTimelineCoversAllPhases() {
+    AtomicReference<StartupTimeline> publishedTimeline = new AtomicReference<>();
+    var containerUnderTest =
+        new GiteaContainer(LATEST_GITEA_IMAGE)
+            .withSshKeyAuth()
+            .withStartupTimelineListener(publishedTimeline::set);
+
+    containerUnderTest.start();
+
+    StartupTimeline startupTimeline = containerUnderTest.getStartupTimeline();
+    assertThat(publishedTimeline.get()).isSameAs(startupTimeline);
+    assertThat(startupTimeline.getPhases())
+        .extracting(StartupTimeline.Phase::getName)
+        .containsExactly(
+            "configure",
+            "image",
+            "create",
+            "start",
+            "wait",
+            "configure-admin-user",
+            "configure-git-repository",
+            "configure-ssh-key-auth");
+  }
+
   @Test
   void checkSetupGitRepoViaSSH_noSshKeyAuthConfigured() {
     var containerUnderTest = new GiteaContainer(LATEST_GITEA_IMAGE);
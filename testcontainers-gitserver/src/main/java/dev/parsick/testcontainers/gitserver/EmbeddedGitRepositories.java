@@ -0,0 +1,154 @@
+package dev.parsick.testcontainers.gitserver;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.util.FileUtils;
+
+/**
+ * Bare git repositories of the embedded git servers, which run inside the JVM instead of a
+ * container.
+ *
+ * <p>The repositories are kept in a temporary directory by default, which is deleted when the
+ * server stops, or in a directory on the host if one is set with {@link #withDirectory(Path)}. They
+ * are created when the server starts and closed when it stops.
+ *
+ * <p>JGit ({@code org.eclipse.jgit:org.eclipse.jgit}) has to be on the classpath.
+ */
+public class EmbeddedGitRepositories {
+
+  private String gitRepoName = "testRepo";
+  private final Set<String> additionalGitRepoNames = new LinkedHashSet<>();
+  private Path directory;
+  private Path temporaryDirectory;
+  private final Map<String, Repository> repositories = new LinkedHashMap<>();
+
+  /**
+   * Override the default git repository name.
+   *
+   * @param gitRepoName - name of the git repository that is created by default
+   */
+  public void withGitRepo(String gitRepoName) {
+    this.gitRepoName = GitRepositoryCommands.checkRepoName(gitRepoName);
+  }
+
+  /**
+   * Create additional git repositories besides the default one.
+   *
+   * @param gitRepoNames - names of the additional git repositories
+   */
+  public void withGitRepos(String... gitRepoNames) {
+    for (String name : gitRepoNames) {
+      additionalGitRepoNames.add(GitRepositoryCommands.checkRepoName(name));
+    }
+  }
+
+  /**
+   * Store the repositories in the given directory instead of a temporary directory, e.g. to keep
+   * them after the server stops.
+   *
+   * @param directory - directory on the host
+   */
+  public void withDirectory(Path directory) {
+    this.directory = directory;
+  }
+
+  /**
+   * @return name of the default repository
+   */
+  public String getGitRepoName() {
+    return gitRepoName;
+  }
+
+  /**
+   * Return the names of all git repositories, the default repository first.
+   *
+   * @return names of the git repositories
+   */
+  public List<String> getGitRepoNames() {
+    List<String> gitRepoNames = new ArrayList<>();
+    gitRepoNames.add(gitRepoName);
+    additionalGitRepoNames.stream()
+        .filter(name -> !name.equals(gitRepoName))
+        .forEach(gitRepoNames::add);
+    return gitRepoNames;
+  }
+
+  /** Create all repositories. Repositories in a directory are reused, if they exist already. */
+  public void open() {
+    try {
+      Path repositoriesDirectory = directory;
+      if (repositoriesDirectory == null) {
+        temporaryDirectory = Files.createTempDirectory("embedded-git-repositories");
+        repositoriesDirectory = temporaryDirectory;
+      }
+      for (String name : getGitRepoNames()) {
+        repositories.put(name, open(repositoriesDirectory, name));
+      }
+    } catch (IOException e) {
+      close();
+      throw new RuntimeException("Creating the git repositories failed", e);
+    }
+  }
+
+  /** Close all repositories. Repositories in the temporary directory are deleted. */
+  public void close() {
+    repositories.values().forEach(Repository::close);
+    repositories.clear();
+    if (temporaryDirectory != null) {
+      try {
+        FileUtils.delete(temporaryDirectory.toFile(), FileUtils.RECURSIVE | FileUtils.RETRY);
+      } catch (IOException e) {
+        throw new RuntimeException("Deleting the git repositories failed", e);
+      } finally {
+        temporaryDirectory = null;
+      }
+    }
+  }
+
+  /**
+   * Return the repository with the given name.
+   *
+   * @param gitRepoName - name of the default repository or of an additional repository
+   * @return repository
+   */
+  public Repository getRepository(String gitRepoName) {
+    return findRepository(gitRepoName)
+        .orElseThrow(() -> new IllegalArgumentException("Unknown git repo name: " + gitRepoName));
+  }
+
+  /**
+   * Find the repository for the path of a request, e.g. {@code testRepo.git}.
+   *
+   * @param gitRepoName - name of the repository with or without the suffix {@code .git}
+   * @return repository or empty if no repository with the name exists or the server is stopped
+   */
+  public Optional<Repository> findRepository(String gitRepoName) {
+    String name =
+        gitRepoName.endsWith(Constants.DOT_GIT_EXT)
+            ? gitRepoName.substring(0, gitRepoName.length() - Constants.DOT_GIT_EXT.length())
+            : gitRepoName;
+    return Optional.ofNullable(repositories.get(name));
+  }
+
+  private static Repository open(Path repositoriesDirectory, String name) throws IOException {
+    Repository repository =
+        new FileRepositoryBuilder()
+            .setGitDir(repositoriesDirectory.resolve(name + Constants.DOT_GIT_EXT).toFile())
+            .build();
+    if (!repository.getObjectDatabase().exists()) {
+      repository.create(true);
+    }
+    return repository;
+  }
+}
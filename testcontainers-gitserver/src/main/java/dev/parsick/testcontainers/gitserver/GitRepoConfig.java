@@ -0,0 +1,138 @@
+package dev.parsick.testcontainers.gitserver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Server side git configuration that is applied to every repository of a container.
+ *
+ * <p>The typed methods cover the settings that influence the fetch and clone performance. Any
+ * other setting can be added with {@link #with(String, String)}. The settings are appended to the
+ * {@code config} file of each repository, so they win over the defaults of {@code git init}.
+ */
+public class GitRepoConfig {
+
+  private final Map<String, String> settings = new LinkedHashMap<>();
+
+  /**
+   * Set the number of threads for delta compression ({@code pack.threads}).
+   *
+   * @param threads - number of threads, 0 to use one thread per CPU
+   * @return this configuration
+   */
+  public GitRepoConfig withPackThreads(int threads) {
+    return with("pack.threads", String.valueOf(threads));
+  }
+
+  /**
+   * Set the number of objects that are compared for delta compression ({@code pack.window}).
+   *
+   * @param window - size of the delta window
+   * @return this configuration
+   */
+  public GitRepoConfig withPackWindow(int window) {
+    return with("pack.window", String.valueOf(window));
+  }
+
+  /**
+   * Set the size from which files are stored without delta compression ({@code
+   * core.bigFileThreshold}).
+   *
+   * @param bytes - threshold in bytes
+   * @return this configuration
+   */
+  public GitRepoConfig withBigFileThreshold(long bytes) {
+    return with("core.bigFileThreshold", String.valueOf(bytes));
+  }
+
+  /**
+   * Allow partial clones with {@code --filter} ({@code uploadpack.allowFilter}).
+   *
+   * @param allowFilter - whether filters are allowed
+   * @return this configuration
+   */
+  public GitRepoConfig withUploadPackAllowFilter(boolean allowFilter) {
+    return with("uploadpack.allowFilter", String.valueOf(allowFilter));
+  }
+
+  /**
+   * Allow fetching any object by its id ({@code uploadpack.allowAnySHA1InWant}).
+   *
+   * @param allowAnySha1InWant - whether any object may be requested
+   * @return this configuration
+   */
+  public GitRepoConfig withUploadPackAllowAnySha1InWant(boolean allowAnySha1InWant) {
+    return with("uploadpack.allowAnySHA1InWant", String.valueOf(allowAnySha1InWant));
+  }
+
+  /**
+   * Write bitmap indexes on repack ({@code repack.writeBitmaps}).
+   *
+   * @param writeBitmaps - whether bitmap indexes are written
+   * @return this configuration
+   */
+  public GitRepoConfig withRepackWriteBitmaps(boolean writeBitmaps) {
+    return with("repack.writeBitmaps", String.valueOf(writeBitmaps));
+  }
+
+  /**
+   * Set any git configuration.
+   *
+   * @param key - configuration key like {@code section.name} or {@code section.subsection.name}
+   * @param value - value of the configuration
+   * @return this configuration
+   */
+  public GitRepoConfig with(String key, String value) {
+    int firstDot = key.indexOf('.');
+    int lastDot = key.lastIndexOf('.');
+    if (firstDot <= 0 || lastDot == key.length() - 1) {
+      throw new IllegalArgumentException("Invalid git config key: " + key);
+    }
+    settings.put(key, value);
+    return this;
+  }
+
+  /**
+   * @return all settings in the order they were added
+   */
+  public Map<String, String> getSettings() {
+    return Collections.unmodifiableMap(settings);
+  }
+
+  /**
+   * @return true if no setting was added
+   */
+  public boolean isEmpty() {
+    return settings.isEmpty();
+  }
+
+  /**
+   * Render the settings in the syntax of a git config file.
+   *
+   * @return content for a git config file
+   */
+  public String render() {
+    List<String> lines = new ArrayList<>();
+    for (Map.Entry<String, String> setting : settings.entrySet()) {
+      String key = setting.getKey();
+      int firstDot = key.indexOf('.');
+      int lastDot = key.lastIndexOf('.');
+      String section = key.substring(0, firstDot);
+      if (firstDot != lastDot) {
+        section += " " + quote(key.substring(firstDot + 1, lastDot));
+      }
+      lines.add("[" + section + "]");
+      lines.add("\t" + key.substring(lastDot + 1) + " = " + quote(setting.getValue()));
+    }
+    return String.join("\n", lines);
+  }
+
+  private static String quote(String value) {
+    return "\""
+        + value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n")
+        + "\"";
+  }
+}
@@ -0,0 +1,310 @@
+package dev.parsick.testcontainers.gitserver;
+
+import static dev.parsick.testcontainers.gitserver.ProvisioningScript.quote;
+import static java.util.stream.Collectors.joining;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.NullProgressMonitor;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.transport.BundleWriter;
+import org.eclipse.jgit.transport.RefSpec;
+import org.eclipse.jgit.transport.TagOpt;
+import org.eclipse.jgit.util.FileUtils;
+import org.testcontainers.containers.ContainerState;
+import org.testcontainers.utility.MountableFile;
+
+/**
+ * Import of an existing git repository as a single packfile.
+ *
+ * <p>Instead of copying the whole {@code .git} directory (loose objects, logs, hooks, index), only
+ * the objects reachable from the selected refs are packed with the {@link BundleWriter} of JGit and
+ * streamed to a bundle file, i.e. a packfile with a short header. The bundle is copied into the
+ * container and unbundled there into a bare repository.
+ *
+ * <p>By default all branches and tags are imported with their full history. The import can be
+ * narrowed down with {@link #withRefs(String...)} and {@link #withDepth(int)}.
+ *
+ * <p>JGit ({@code org.eclipse.jgit:org.eclipse.jgit}) has to be on the classpath.
+ */
+public class GitRepoImport {
+
+  static final String BUNDLE_FILE = "import.bundle";
+  static final String REFS_FILE = "refs";
+  static final String HEAD_FILE = "HEAD";
+  static final String SHALLOW_FILE = "shallow";
+
+  private final Path repositoryPath;
+  private List<String> refPatterns = List.of(Constants.R_HEADS + "*", Constants.R_TAGS + "*");
+  private int depth = 0;
+
+  private GitRepoImport(Path repositoryPath) {
+    this.repositoryPath = repositoryPath;
+  }
+
+  /**
+   * Import the git repository at the given path.
+   *
+   * @param pathToExistingRepo - path to a working copy or to a bare repository on the host
+   * @return import of the repository
+   */
+  public static GitRepoImport fromPath(String pathToExistingRepo) {
+    return new GitRepoImport(Paths.get(pathToExistingRepo));
+  }
+
+  /**
+   * Import only the refs that match one of the given patterns.
+   *
+   * <p>A pattern is either a full ref name like {@code refs/tags/v1.*} or a branch name like {@code
+   * main}. {@code *} matches any sequence of characters.
+   *
+   * <p>Default patterns are {@code refs/heads/*} and {@code refs/tags/*}.
+   *
+   * @param refPatterns - patterns of the refs to import
+   * @return this import
+   */
+  public GitRepoImport withRefs(String... refPatterns) {
+    if (refPatterns.length == 0) {
+      throw new IllegalArgumentException("At least one ref pattern is required");
+    }
+    this.refPatterns = List.of(refPatterns);
+    return this;
+  }
+
+  /**
+   * Import only the given number of commits of each ref, like {@code git clone --depth}.
+   *
+   * <p>The repository in the container is a shallow repository then.
+   *
+   * @param depth - number of commits per ref, must be positive
+   * @return this import
+   */
+  public GitRepoImport withDepth(int depth) {
+    if (depth <= 0) {
+      throw new IllegalArgumentException("Depth must be positive, but was " + depth);
+    }
+    this.depth = depth;
+    return this;
+  }
+
+  /**
+   * @return path to the existing git repository on the host
+   */
+  public Path getRepositoryPath() {
+    return repositoryPath;
+  }
+
+  /**
+   * @return patterns of the refs to import
+   */
+  public List<String> getRefPatterns() {
+    return refPatterns;
+  }
+
+  /**
+   * @return number of commits per ref or 0 for the full history
+   */
+  public int getDepth() {
+    return depth;
+  }
+
+  /**
+   * Write the bundle, the refs and HEAD of the repository into the given directory.
+   *
+   * <p>The bundle is streamed to disk, so the heap usage does not depend on the size of the
+   * objects.
+   *
+   * @param directory - directory on the host
+   * @throws IOException if the repository cannot be read or the files cannot be written
+   */
+  public void writeTo(Path directory) throws IOException {
+    try (Repository repository =
+        new FileRepositoryBuilder().setGitDir(gitDir().toFile()).setMustExist(true).build()) {
+      Map<String, ObjectId> refs = selectRefs(repository);
+      if (depth > 0) {
+        writeShallowBundle(repository, refs, directory);
+      } else {
+        writeBundle(repository, refs, directory.resolve(BUNDLE_FILE));
+      }
+      try (Writer writer =
+          Files.newBufferedWriter(directory.resolve(REFS_FILE), StandardCharsets.UTF_8)) {
+        for (Map.Entry<String, ObjectId> ref : refs.entrySet()) {
+          writer.write("create " + ref.getKey() + " " + ref.getValue().name() + "\n");
+        }
+      }
+      Files.writeString(
+          directory.resolve(HEAD_FILE), head(repository, refs), StandardCharsets.UTF_8);
+    }
+  }
+
+  /**
+   * Describe the content of the import with the selected refs, their object ids, HEAD and the
+   * depth. Two imports with the same fingerprint create the same repository in the container.
+   *
+   * @return fingerprint of the import
+   * @throws IOException if the repository cannot be read
+   */
+  public String fingerprint() throws IOException {
+    try (Repository repository =
+        new FileRepositoryBuilder().setGitDir(gitDir().toFile()).setMustExist(true).build()) {
+      Map<String, ObjectId> refs = selectRefs(repository);
+      StringBuilder fingerprint = new StringBuilder("depth ").append(depth).append('\n');
+      fingerprint.append("HEAD ").append(head(repository, refs)).append('\n');
+      new TreeMap<>(refs)
+          .forEach(
+              (name, id) -> fingerprint.append(name).append(' ').append(id.name()).append('\n'));
+      return fingerprint.toString();
+    }
+  }
+
+  /**
+   * Write the bundle, the refs and HEAD of the repository into a temporary directory and copy it
+   * into the container.
+   *
+   * @param container - target container
+   * @param stagingPath - path inside the container to which the files are copied
+   * @throws IOException if the repository cannot be packed
+   */
+  public void copyToContainer(ContainerState container, String stagingPath) throws IOException {
+    Path directory = Files.createTempDirectory("git-repo-import");
+    try {
+      writeTo(directory);
+      container.copyFileToContainer(MountableFile.forHostPath(directory), stagingPath);
+    } finally {
+      for (String file : List.of(BUNDLE_FILE, REFS_FILE, HEAD_FILE, SHALLOW_FILE)) {
+        Files.deleteIfExists(directory.resolve(file));
+      }
+      Files.delete(directory);
+    }
+  }
+
+  /**
+   * Shell snippet that creates the bare repository from the files copied by {@link
+   * #copyToContainer(ContainerState, String)}.
+   *
+   * @param stagingPath - path inside the container to which the files were copied
+   * @param gitRepoPath - path of the bare repository inside the container
+   * @return shell snippet
+   */
+  public String importCommand(String stagingPath, String gitRepoPath) {
+    String staging = quote(stagingPath);
+    String repo = quote(gitRepoPath);
+    return String.join(
+        "\n",
+        "git init --bare -q " + repo,
+        "git -C " + repo + " bundle unbundle " + staging + "/" + BUNDLE_FILE + " > /dev/null",
+        "if [ -f " + staging + "/" + SHALLOW_FILE + " ]; then",
+        "  cp " + staging + "/" + SHALLOW_FILE + " " + repo + "/" + SHALLOW_FILE,
+        "fi",
+        "git -C " + repo + " update-ref --stdin < " + staging + "/" + REFS_FILE,
+        "git -C " + repo + " symbolic-ref HEAD \"$(cat " + staging + "/" + HEAD_FILE + ")\"",
+        "rm -rf " + staging);
+  }
+
+  private Path gitDir() {
+    Path dotGit = repositoryPath.resolve(Constants.DOT_GIT);
+    return Files.isDirectory(dotGit) ? dotGit : repositoryPath;
+  }
+
+  private Map<String, ObjectId> selectRefs(Repository repository) throws IOException {
+    List<Pattern> patterns = new ArrayList<>();
+    for (String refPattern : refPatterns) {
+      patterns.add(toPattern(refPattern));
+    }
+    Map<String, ObjectId> refs = new LinkedHashMap<>();
+    for (Ref ref : repository.getRefDatabase().getRefsByPrefix(Constants.R_REFS)) {
+      if (!ref.isSymbolic()
+          && ref.getObjectId() != null
+          && patterns.stream().anyMatch(pattern -> pattern.matcher(ref.getName()).matches())) {
+        refs.put(ref.getName(), ref.getObjectId());
+      }
+    }
+    return refs;
+  }
+
+  private static Pattern toPattern(String refPattern) {
+    String fullPattern =
+        refPattern.startsWith(Constants.R_REFS) ? refPattern : Constants.R_HEADS + refPattern;
+    return Pattern.compile(
+        Arrays.stream(fullPattern.split("\\*", -1)).map(Pattern::quote).collect(joining(".*")));
+  }
+
+  private static void writeBundle(
+      Repository repository, Map<String, ObjectId> refs, Path bundleFile) throws IOException {
+    BundleWriter bundleWriter = new BundleWriter(repository);
+    refs.forEach(bundleWriter::include);
+    try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(bundleFile))) {
+      bundleWriter.writeBundle(NullProgressMonitor.INSTANCE, out);
+    }
+  }
+
+  /**
+   * Fetch the refs with the depth into a temporary bare repository, like {@code git clone --depth}
+   * does, and bundle them from there. The shallow commits of the fetch are written to the shallow
+   * file.
+   */
+  private void writeShallowBundle(
+      Repository repository, Map<String, ObjectId> refs, Path directory) throws IOException {
+    File shallowRepository = Files.createTempDirectory("git-repo-import-shallow").toFile();
+    try (Git git = Git.init().setBare(true).setDirectory(shallowRepository).call()) {
+      List<RefSpec> refSpecs = new ArrayList<>();
+      for (String ref : refs.keySet()) {
+        refSpecs.add(new RefSpec(ref + ":" + ref));
+      }
+      git.fetch()
+          .setRemote(repository.getDirectory().toURI().toString())
+          .setRefSpecs(refSpecs)
+          .setTagOpt(TagOpt.NO_TAGS)
+          .setDepth(depth)
+          .call();
+      writeBundle(git.getRepository(), refs, directory.resolve(BUNDLE_FILE));
+      Set<ObjectId> shallowCommits =
+          git.getRepository().getObjectDatabase().getShallowCommits();
+      if (!shallowCommits.isEmpty()) {
+        try (Writer writer =
+            Files.newBufferedWriter(directory.resolve(SHALLOW_FILE), StandardCharsets.UTF_8)) {
+          for (ObjectId shallowCommit : shallowCommits) {
+            writer.write(shallowCommit.name() + "\n");
+          }
+        }
+      }
+    } catch (GitAPIException e) {
+      throw new IOException("Fetching the refs with depth " + depth + " failed", e);
+    } finally {
+      FileUtils.delete(shallowRepository, FileUtils.RECURSIVE | FileUtils.RETRY);
+    }
+  }
+
+  private static String head(Repository repository, Map<String, ObjectId> refs)
+      throws IOException {
+    String head = repository.getFullBranch();
+    if (head != null && refs.containsKey(head)) {
+      return head;
+    }
+    return refs.keySet().stream()
+        .filter(name -> name.startsWith(Constants.R_HEADS))
+        .findFirst()
+        .orElse(head != null && head.startsWith(Constants.R_HEADS) ? head : "refs/heads/main");
+  }
+}
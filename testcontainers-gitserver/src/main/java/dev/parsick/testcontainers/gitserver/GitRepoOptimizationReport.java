@@ -0,0 +1,169 @@
+package dev.parsick.testcontainers.gitserver;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Object statistics of a git repository before and after the optimization with {@code git
+ * repack}, bitmap index and commit-graph.
+ */
+public class GitRepoOptimizationReport {
+
+  static final String BEFORE_MARKER = "@@before";
+  static final String AFTER_MARKER = "@@after";
+
+  private final ObjectStatistics before;
+  private final ObjectStatistics after;
+  private final Duration duration;
+
+  /**
+   * @param before - statistics before the optimization
+   * @param after - statistics after the optimization
+   * @param duration - duration of the optimization
+   */
+  public GitRepoOptimizationReport(
+      ObjectStatistics before, ObjectStatistics after, Duration duration) {
+    this.before = before;
+    this.after = after;
+    this.duration = duration;
+  }
+
+  /**
+   * Parse the output of {@link GitRepositoryCommands#optimize(String)}.
+   *
+   * @param step - result of the provisioning step that optimized the repository
+   * @return report of the optimization
+   */
+  public static GitRepoOptimizationReport parse(ProvisioningResult.StepResult step) {
+    Map<String, Long> before = new HashMap<>();
+    Map<String, Long> after = new HashMap<>();
+    Map<String, Long> current = null;
+    for (String line : step.getOutput().split("\n")) {
+      if (BEFORE_MARKER.equals(line)) {
+        current = before;
+      } else if (AFTER_MARKER.equals(line)) {
+        current = after;
+      } else if (current != null && line.contains(": ")) {
+        String[] entry = line.split(": ", 2);
+        try {
+          current.put(entry[0].trim(), Long.parseLong(entry[1].trim()));
+        } catch (NumberFormatException e) {
+          // not a line of git count-objects -v
+        }
+      }
+    }
+    return new GitRepoOptimizationReport(
+        ObjectStatistics.of(before), ObjectStatistics.of(after), step.getDuration());
+  }
+
+  /**
+   * @return statistics before the optimization
+   */
+  public ObjectStatistics getBefore() {
+    return before;
+  }
+
+  /**
+   * @return statistics after the optimization
+   */
+  public ObjectStatistics getAfter() {
+    return after;
+  }
+
+  /**
+   * @return duration of the optimization measured inside the container, zero if unknown
+   */
+  public Duration getDuration() {
+    return duration;
+  }
+
+  @Override
+  public String toString() {
+    return "optimization took " + duration + ", before: " + before + ", after: " + after;
+  }
+
+  /** Object statistics of a git repository as reported by {@code git count-objects -v}. */
+  public static class ObjectStatistics {
+
+    private final long looseObjects;
+    private final long looseSizeKib;
+    private final long packedObjects;
+    private final long packs;
+    private final long packSizeKib;
+
+    /**
+     * @param looseObjects - number of loose objects
+     * @param looseSizeKib - disk usage of the loose objects in KiB
+     * @param packedObjects - number of objects in packs
+     * @param packs - number of packs
+     * @param packSizeKib - disk usage of the packs in KiB
+     */
+    public ObjectStatistics(
+        long looseObjects, long looseSizeKib, long packedObjects, long packs, long packSizeKib) {
+      this.looseObjects = looseObjects;
+      this.looseSizeKib = looseSizeKib;
+      this.packedObjects = packedObjects;
+      this.packs = packs;
+      this.packSizeKib = packSizeKib;
+    }
+
+    private static ObjectStatistics of(Map<String, Long> countObjects) {
+      return new ObjectStatistics(
+          countObjects.getOrDefault("count", 0L),
+          countObjects.getOrDefault("size", 0L),
+          countObjects.getOrDefault("in-pack", 0L),
+          countObjects.getOrDefault("packs", 0L),
+          countObjects.getOrDefault("size-pack", 0L));
+    }
+
+    /**
+     * @return number of loose objects
+     */
+    public long getLooseObjects() {
+      return looseObjects;
+    }
+
+    /**
+     * @return disk usage of the loose objects in KiB
+     */
+    public long getLooseSizeKib() {
+      return looseSizeKib;
+    }
+
+    /**
+     * @return number of objects in packs
+     */
+    public long getPackedObjects() {
+      return packedObjects;
+    }
+
+    /**
+     * @return number of packs
+     */
+    public long getPacks() {
+      return packs;
+    }
+
+    /**
+     * @return disk usage of the packs in KiB
+     */
+    public long getPackSizeKib() {
+      return packSizeKib;
+    }
+
+    @Override
+    public String toString() {
+      return looseObjects
+          + " loose objects ("
+          + looseSizeKib
+          + " KiB), "
+          + packedObjects
+          + " packed objects in "
+          + packs
+          + " packs ("
+          + packSizeKib
+          + " KiB)";
+    }
+  }
+}
@@ -0,0 +1,219 @@
+package dev.parsick.testcontainers.gitserver;
+
+import static dev.parsick.testcontainers.gitserver.ProvisioningScript.quote;
+import static java.util.stream.Collectors.joining;
+
+import java.util.List;
+
+/** Shell snippets for {@link ProvisioningScript} steps that manage git repositories. */
+public final class GitRepositoryCommands {
+
+  /** Path of the git repositories inside the containers. */
+  public static final String REPOSITORIES_PATH = "/srv/git";
+
+  /** Path of the snapshot of the git repositories inside the containers. */
+  public static final String SNAPSHOT_PATH = REPOSITORIES_PATH + "/.snapshot";
+
+  private GitRepositoryCommands() {}
+
+  /**
+   * Check that the name can be used for a repository directory directly below {@link
+   * #REPOSITORIES_PATH}.
+   *
+   * @param gitRepoName - name of a git repository
+   * @return the name
+   * @throws IllegalArgumentException if the name is blank, contains a path separator or is the name
+   *     of the snapshot directory
+   */
+  public static String checkRepoName(String gitRepoName) {
+    if (gitRepoName == null
+        || gitRepoName.isBlank()
+        || gitRepoName.contains("/")
+        || gitRepoName.contains("\\")
+        || SNAPSHOT_PATH.equals(REPOSITORIES_PATH + "/" + gitRepoName)) {
+      throw new IllegalArgumentException("Invalid git repo name: " + gitRepoName);
+    }
+    return gitRepoName;
+  }
+
+  /**
+   * Create bare git repositories.
+   *
+   * <p>Only the first repository is created with {@code git init}. All others are created as a copy
+   * of it with one {@code mkdir} call and shell builtins, so that the cost of the snippet does not
+   * grow with a process start per repository.
+   *
+   * @param repoPaths - paths of the bare repositories inside the container
+   * @return shell snippet
+   */
+  public static String initBareRepositories(List<String> repoPaths) {
+    if (repoPaths.isEmpty()) {
+      return "true";
+    }
+    String template = quote(repoPaths.get(0));
+    StringBuilder command = new StringBuilder("git init --bare -q ").append(template).append('\n');
+    List<String> others = repoPaths.subList(1, repoPaths.size());
+    if (!others.isEmpty()) {
+      command
+          .append("__head=$(cat ")
+          .append(template)
+          .append("/HEAD)\n")
+          .append("__config=$(cat ")
+          .append(template)
+          .append("/config)\n")
+          .append("mkdir -p ")
+          .append(others.stream().map(GitRepositoryCommands::repoDirs).collect(joining(" ")))
+          .append('\n')
+          .append("for __repo in ")
+          .append(others.stream().map(ProvisioningScript::quote).collect(joining(" ")))
+          .append("; do\n")
+          .append("  printf '%s\\n' \"$__head\" > \"$__repo/HEAD\"\n")
+          .append("  printf '%s\\n' \"$__config\" > \"$__repo/config\"\n")
+          .append("done\n");
+    }
+    return command.toString();
+  }
+
+  private static String repoDirs(String repoPath) {
+    return quote(repoPath + "/objects")
+        + " "
+        + quote(repoPath + "/refs/heads")
+        + " "
+        + quote(repoPath + "/refs/tags");
+  }
+
+  /**
+   * Move a repository that was copied into a staging directory to its path.
+   *
+   * <p>Files can not be copied into a tmpfs mount from the host, so a repository for in-memory
+   * storage is copied outside the mount first, see {@link InMemoryStorage}.
+   *
+   * @param stagingPath - path of the staging directory inside the container
+   * @param repoPath - path of the repository inside the container
+   * @return shell snippet
+   */
+  public static String moveStagedRepository(String stagingPath, String repoPath) {
+    String staging = quote(stagingPath);
+    String repo = quote(repoPath);
+    return "mkdir -p " + repo + " && cp -a " + staging + "/. " + repo + " && rm -rf " + staging;
+  }
+
+  /**
+   * Hard link all repositories into the snapshot directory.
+   *
+   * <p>The snapshot directory has to be a hidden directory inside the repositories path, so that
+   * both are on the same file system, even if the repositories path is a mount point.
+   *
+   * @param repositoriesPath - path of the repositories inside the container
+   * @param snapshotPath - path of the snapshot inside the container
+   * @return shell snippet
+   */
+  public static String snapshot(String repositoriesPath, String snapshotPath) {
+    String snapshot = quote(snapshotPath);
+    return String.join(
+        "\n",
+        "rm -rf " + snapshot,
+        "mkdir -p " + snapshot,
+        linkRepositories(repositoriesPath, snapshotPath));
+  }
+
+  /**
+   * Replace the repositories with hard links of the repositories in the snapshot directory.
+   *
+   * @param repositoriesPath - path of the repositories inside the container
+   * @param snapshotPath - path of the snapshot inside the container
+   * @return shell snippet
+   */
+  public static String resetToSnapshot(String repositoriesPath, String snapshotPath) {
+    String repositories = quote(repositoriesPath);
+    String snapshot = quote(snapshotPath);
+    return String.join(
+        "\n",
+        "if [ ! -d " + snapshot + " ]; then",
+        "  echo 'No snapshot recorded, call snapshot() first'",
+        "  exit 1",
+        "fi",
+        "rm -rf " + repositories + "/*",
+        linkRepositories(snapshotPath, repositoriesPath));
+  }
+
+  /**
+   * Hard link all repositories of the source directory into the target directory.
+   *
+   * <p>Git appends to the reflogs in {@code logs} and may edit {@code config} in place, which would
+   * change both sides of a hard link. So these are copied.
+   */
+  private static String linkRepositories(String sourcePath, String targetPath) {
+    String target = quote(targetPath);
+    return String.join(
+        "\n",
+        "set -- " + quote(sourcePath) + "/*",
+        "if [ -e \"$1\" ]; then",
+        "  cp -al \"$@\" " + target + "/",
+        "  for __repo in \"$@\"; do",
+        "    __copy=" + target + "/\"${__repo##*/}\"",
+        "    for __file in config logs; do",
+        "      if [ -e \"$__repo/$__file\" ]; then",
+        "        rm -rf \"$__copy/$__file\"",
+        "        cp -a \"$__repo/$__file\" \"$__copy/$__file\"",
+        "      fi",
+        "    done",
+        "  done",
+        "fi");
+  }
+
+  /**
+   * Append the given configuration to the config file of every repository with shell builtins.
+   *
+   * @param repoPaths - paths of the bare repositories inside the container
+   * @param config - content in the syntax of a git config file
+   * @return shell snippet
+   */
+  public static String appendConfig(List<String> repoPaths, String config) {
+    if (repoPaths.isEmpty()) {
+      return "true";
+    }
+    return String.join(
+        "\n",
+        "__config=" + quote(config),
+        "for __repo in "
+            + repoPaths.stream().map(ProvisioningScript::quote).collect(joining(" "))
+            + "; do",
+        "  printf '%s\\n' \"$__config\" >> \"$__repo/config\"",
+        "done");
+  }
+
+  /**
+   * Optimize a repository for clones and fetches. All objects are written into one packfile with
+   * bitmap index, the refs are packed and a commit-graph is written. The output of {@code git
+   * count-objects -v} before and after is parsed by {@link GitRepoOptimizationReport}.
+   *
+   * @param repoPath - path of the bare repository inside the container
+   * @return shell snippet
+   */
+  public static String optimize(String repoPath) {
+    // the repository is owned by the git user already, but the snippet runs as root
+    String git = "git -c safe.directory='*' -C " + quote(repoPath);
+    return String.join(
+        "\n",
+        "echo " + GitRepoOptimizationReport.BEFORE_MARKER,
+        git + " count-objects -v",
+        git + " repack -a -d -q --write-bitmap-index",
+        git + " pack-refs --all",
+        git + " commit-graph write --reachable",
+        "echo " + GitRepoOptimizationReport.AFTER_MARKER,
+        git + " count-objects -v",
+        "chown -R git:git " + quote(repoPath));
+  }
+
+  /**
+   * Hand the given paths over to the git user.
+   *
+   * @param paths - paths inside the container
+   * @return shell snippet
+   */
+  public static String chownToGitUser(List<String> paths) {
+    return "chown -R git:git "
+        + paths.stream().map(ProvisioningScript::quote).collect(joining(" "));
+  }
+}
@@ -0,0 +1,362 @@
+package dev.parsick.testcontainers.gitserver;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testcontainers.lifecycle.Startable;
+
+/**
+ * Pool of started and provisioned git server containers.
+ *
+ * <p>The pool keeps a fixed number of containers ready. A test leases a container and returns it by
+ * closing the lease. Returned containers are reset to the snapshot that was taken right after their
+ * start and are then available again. Containers that are not running anymore are replaced in the
+ * background, so the startup time is not on the critical path of the tests.
+ *
+ * <pre>{@code
+ * static GitServerContainerPool<GitServerContainer> pool =
+ *     new GitServerContainerPool<>(() -> new GitServerContainer(imageName), 4);
+ *
+ * try (var lease = pool.lease()) {
+ *   URI uri = lease.getContainer().getGitRepoURIAsSSH();
+ * }
+ * }</pre>
+ *
+ * @param <T> type of the git server container
+ */
+public class GitServerContainerPool<T extends Startable & ResettableGitServer>
+    implements AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(GitServerContainerPool.class);
+  private static final Duration DEFAULT_LEASE_TIMEOUT = Duration.ofMinutes(2);
+  private static final int REPLACEMENT_ATTEMPTS = 3;
+  private static final Duration REPLACEMENT_RETRY_DELAY = Duration.ofSeconds(1);
+
+  private final Supplier<T> containerFactory;
+  private final int size;
+  private final BlockingQueue<T> idleContainers = new LinkedBlockingQueue<>();
+  private final Set<T> containers = ConcurrentHashMap.newKeySet();
+  private final ExecutorService executor;
+  private final AtomicInteger pendingReplacements = new AtomicInteger();
+  // guards closed and the adding of containers, so no container is added after close()
+  private final Object lock = new Object();
+  private volatile RuntimeException lastStartFailure;
+  private volatile boolean started;
+  private volatile boolean closed;
+
+  /**
+   * @param containerFactory - creates a new, not yet started container
+   * @param size - number of containers that are kept ready
+   */
+  public GitServerContainerPool(Supplier<T> containerFactory, int size) {
+    if (size <= 0) {
+      throw new IllegalArgumentException("Pool size must be positive, but was " + size);
+    }
+    this.containerFactory = containerFactory;
+    this.size = size;
+    this.executor =
+        Executors.newFixedThreadPool(
+            size,
+            runnable -> {
+              Thread thread = new Thread(runnable, "git-server-container-pool");
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  /**
+   * Start all containers of the pool in parallel and wait until they are ready.
+   *
+   * <p>Is called implicitly by the first lease. If a container fails to start, the containers that
+   * did start are stopped again and the next call starts the pool from scratch.
+   */
+  public synchronized void start() {
+    if (started) {
+      return;
+    }
+    List<Future<?>> startups = new ArrayList<>();
+    for (int i = 0; i < size; i++) {
+      startups.add(executor.submit(this::addContainer));
+    }
+    RuntimeException failure = null;
+    for (Future<?> startup : startups) {
+      try {
+        startup.get();
+      } catch (ExecutionException e) {
+        if (failure == null) {
+          failure =
+              new RuntimeException("Starting the git server container pool failed", e.getCause());
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        startups.forEach(pending -> pending.cancel(true));
+        failure = new RuntimeException("Starting the git server container pool was interrupted", e);
+        break;
+      }
+    }
+    if (failure != null) {
+      stopContainers();
+      throw failure;
+    }
+    started = true;
+  }
+
+  /**
+   * Lease a container. Waits up to two minutes until a container is available.
+   *
+   * @return lease of a running container
+   */
+  public Lease<T> lease() {
+    return lease(DEFAULT_LEASE_TIMEOUT);
+  }
+
+  /**
+   * Lease a container.
+   *
+   * @param timeout - maximal time to wait until a container is available
+   * @return lease of a running container
+   */
+  public Lease<T> lease(Duration timeout) {
+    if (closed) {
+      throw new IllegalStateException("Git server container pool is closed");
+    }
+    start();
+    refill();
+    long deadline = System.nanoTime() + timeout.toNanos();
+    try {
+      while (true) {
+        T container = idleContainers.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        if (container == null) {
+          throw new IllegalStateException(
+              "No git server container available within " + timeout, lastStartFailure);
+        }
+        if (isHealthy(container)) {
+          return new Lease<>(this, container);
+        }
+        replace(container);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Leasing a git server container was interrupted", e);
+    }
+  }
+
+  /**
+   * @return number of containers that are ready to be leased
+   */
+  public int getIdleCount() {
+    return idleContainers.size();
+  }
+
+  /**
+   * @return number of containers that the pool keeps ready
+   */
+  public int getSize() {
+    return size;
+  }
+
+  /**
+   * @return number of started containers in the pool, leased and idle ones. Is lower than {@link
+   *     #getSize()} while stopped containers are replaced or if the replacement failed.
+   */
+  public int getLiveCount() {
+    return containers.size();
+  }
+
+  /** Stop all containers of the pool. */
+  @Override
+  public void close() {
+    synchronized (lock) {
+      closed = true;
+    }
+    executor.shutdownNow();
+    stopContainers();
+  }
+
+  private void stopContainers() {
+    List<T> stopped;
+    synchronized (lock) {
+      stopped = new ArrayList<>(containers);
+      containers.clear();
+      idleContainers.clear();
+    }
+    stopped.forEach(Startable::stop);
+  }
+
+  private void release(T container) {
+    if (closed) {
+      container.stop();
+      return;
+    }
+    try {
+      executor.execute(
+          () -> {
+            try {
+              container.resetToSnapshot();
+              synchronized (lock) {
+                if (!closed) {
+                  idleContainers.add(container);
+                  return;
+                }
+              }
+              container.stop();
+            } catch (RuntimeException e) {
+              LOGGER.warn("Resetting git server container failed, replacing it", e);
+              replace(container);
+            }
+          });
+    } catch (RejectedExecutionException e) {
+      // the pool was closed in the meantime
+      container.stop();
+    }
+  }
+
+  private void replace(T container) {
+    // counted as pending before it is removed, so refill() does not start a second replacement
+    pendingReplacements.incrementAndGet();
+    containers.remove(container);
+    submitReplacement(container);
+  }
+
+  /** Replace containers whose replacement failed before, so the pool does not shrink for good. */
+  private void refill() {
+    while (!closed && containers.size() + pendingReplacements.get() < size) {
+      pendingReplacements.incrementAndGet();
+      submitReplacement(null);
+    }
+  }
+
+  /**
+   * Start a replacement in the background. The broken container is stopped there as well, so that
+   * a lease does not wait for it.
+   *
+   * @param brokenContainer - container to stop before the replacement is started, may be null
+   */
+  private void submitReplacement(T brokenContainer) {
+    try {
+      executor.execute(
+          () -> {
+            try {
+              stopQuietly(brokenContainer);
+              addContainerWithRetry();
+            } finally {
+              pendingReplacements.decrementAndGet();
+            }
+          });
+    } catch (RejectedExecutionException e) {
+      // the pool is closed
+      pendingReplacements.decrementAndGet();
+      stopQuietly(brokenContainer);
+    }
+  }
+
+  private void stopQuietly(T container) {
+    if (container == null) {
+      return;
+    }
+    try {
+      container.stop();
+    } catch (RuntimeException e) {
+      LOGGER.warn("Stopping a broken git server container failed", e);
+    }
+  }
+
+  private void addContainerWithRetry() {
+    for (int attempt = 1; attempt <= REPLACEMENT_ATTEMPTS && !closed; attempt++) {
+      try {
+        addContainer();
+        return;
+      } catch (RuntimeException e) {
+        LOGGER.warn(
+            "Starting a replacement git server container failed (attempt {} of {})",
+            attempt,
+            REPLACEMENT_ATTEMPTS,
+            e);
+      }
+      if (attempt == REPLACEMENT_ATTEMPTS) {
+        return;
+      }
+      try {
+        Thread.sleep(REPLACEMENT_RETRY_DELAY.toMillis());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  private void addContainer() {
+    T container = containerFactory.get();
+    try {
+      container.start();
+      container.snapshot();
+    } catch (RuntimeException e) {
+      lastStartFailure = e;
+      container.stop();
+      throw e;
+    }
+    synchronized (lock) {
+      if (!closed) {
+        containers.add(container);
+        idleContainers.add(container);
+        return;
+      }
+    }
+    container.stop();
+  }
+
+  private boolean isHealthy(T container) {
+    try {
+      return container.isRunning();
+    } catch (RuntimeException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Lease of a pooled container. Closing the lease returns the container to the pool.
+   *
+   * @param <T> type of the git server container
+   */
+  public static class Lease<T extends Startable & ResettableGitServer> implements AutoCloseable {
+
+    private final GitServerContainerPool<T> pool;
+    private final T container;
+    private boolean returned;
+
+    private Lease(GitServerContainerPool<T> pool, T container) {
+      this.pool = pool;
+      this.container = container;
+    }
+
+    /**
+     * @return the leased container
+     */
+    public T getContainer() {
+      return container;
+    }
+
+    /** Reset the container in the background and return it to the pool. */
+    @Override
+    public synchronized void close() {
+      if (!returned) {
+        returned = true;
+        pool.release(container);
+      }
+    }
+  }
+}
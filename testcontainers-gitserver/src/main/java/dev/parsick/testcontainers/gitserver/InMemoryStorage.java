@@ -0,0 +1,30 @@
+package dev.parsick.testcontainers.gitserver;
+
+import java.util.Map;
+
+/**
+ * tmpfs mount for the {@code withInMemoryStorage} option of the containers.
+ *
+ * <p>Files can not be copied into a tmpfs mount from the host, so existing repositories are staged
+ * outside and moved with {@link GitRepositoryCommands#moveStagedRepository(String, String)}.
+ */
+public final class InMemoryStorage {
+
+  private InMemoryStorage() {}
+
+  /**
+   * @param path - mount point inside the container
+   * @param sizeLimit - maximum size of the mount with an optional unit {@code k}, {@code m} or
+   *     {@code g}, e.g. {@code 512m}
+   * @return tmpfs mount for {@code GenericContainer.withTmpFs}
+   * @throws IllegalArgumentException if the size limit is not a positive number with an optional
+   *     unit
+   */
+  public static Map<String, String> tmpfs(String path, String sizeLimit) {
+    if (!sizeLimit.matches("[1-9][0-9]*[kmg]?")) {
+      throw new IllegalArgumentException("Invalid size limit: " + sizeLimit);
+    }
+    // exec, because docker mounts tmpfs with noexec by default and git hooks must be executable
+    return Map.of(path, "rw,exec,size=" + sizeLimit);
+  }
+}
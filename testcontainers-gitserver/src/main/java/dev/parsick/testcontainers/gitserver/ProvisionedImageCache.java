@@ -0,0 +1,174 @@
+package dev.parsick.testcontainers.gitserver;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.command.InspectImageResponse;
+import com.github.dockerjava.api.exception.NotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.testcontainers.DockerClientFactory;
+
+/**
+ * Local docker images of provisioned git server containers.
+ *
+ * <p>A provisioned container is committed to an image of the repository {@value
+ * #IMAGE_REPOSITORY}. The tag is a hash of everything that influences the provisioning, so a
+ * container with the same configuration can start from this image and skip the provisioning.
+ *
+ * <p>The images are not removed at the end of the test session. Remove the images of the
+ * repository {@value #IMAGE_REPOSITORY} to clear the cache.
+ */
+public final class ProvisionedImageCache {
+
+  /** Repository of the cached images. */
+  public static final String IMAGE_REPOSITORY = "testcontainers-git/provisioned";
+
+  private static final String FORMAT_VERSION = "1";
+
+  private ProvisionedImageCache() {}
+
+  /**
+   * Return the name of the cached image for the given configuration.
+   *
+   * @param configuration - everything that influences the provisioning, e.g. base image name,
+   *     provisioning script and fingerprints of imported repositories
+   * @return image name with the configuration hash as tag
+   */
+  public static String imageName(List<String> configuration) {
+    return imageName(IMAGE_REPOSITORY, configuration);
+  }
+
+  /**
+   * Return the name of an image in the given repository, whose tag is a hash of the given content.
+   *
+   * @param repository - repository of the image
+   * @param content - everything that influences the content of the image
+   * @return image name with the content hash as tag
+   */
+  public static String imageName(String repository, List<String> content) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      digest.update(FORMAT_VERSION.getBytes(StandardCharsets.UTF_8));
+      for (String value : content) {
+        // length prefix, so that the boundaries between the values are part of the hash
+        digest.update((value.length() + ":" + value).getBytes(StandardCharsets.UTF_8));
+      }
+      StringBuilder tag = new StringBuilder();
+      for (byte b : digest.digest()) {
+        tag.append(String.format("%02x", b));
+      }
+      return repository + ":" + tag.substring(0, 32);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not supported", e);
+    }
+  }
+
+  /**
+   * Look up the cached image in the local image store of the docker daemon.
+   *
+   * @param imageName - name of the cached image
+   * @return labels of the cached image or empty if the image does not exist
+   */
+  public static Optional<Map<String, String>> findImage(String imageName) {
+    try {
+      InspectImageResponse image = client().inspectImageCmd(imageName).exec();
+      Map<String, String> labels =
+          image.getConfig() != null ? image.getConfig().getLabels() : null;
+      return Optional.of(labels != null ? labels : Map.of());
+    } catch (NotFoundException e) {
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Commit the given container to the cached image.
+   *
+   * @param containerId - id of the provisioned container
+   * @param imageName - name of the cached image
+   * @param labels - labels of the image, e.g. information that is collected during provisioning
+   */
+  public static void commit(String containerId, String imageName, Map<String, String> labels) {
+    int tagSeparator = imageName.lastIndexOf(':');
+    Map<String, String> imageLabels = new HashMap<>(labels);
+    // the image inherits the labels of the container, the session label would let Ryuk remove it
+    imageLabels.put(DockerClientFactory.TESTCONTAINERS_SESSION_ID_LABEL, "");
+    client()
+        .commitCmd(containerId)
+        .withRepository(imageName.substring(0, tagSeparator))
+        .withTag(imageName.substring(tagSeparator + 1))
+        .withLabels(imageLabels)
+        .exec();
+  }
+
+  /**
+   * Remove a cached image from the local image store of the docker daemon.
+   *
+   * @param imageName - name of the cached image
+   */
+  public static void removeImage(String imageName) {
+    try {
+      client().removeImageCmd(imageName).withForce(true).exec();
+    } catch (NotFoundException e) {
+      // removed already
+    }
+  }
+
+  /**
+   * Describe a git repository on the host with HEAD, its config and the object ids of all refs.
+   * The refs identify the whole history, so the objects are not read. Loose refs take precedence
+   * over packed refs, like in git.
+   *
+   * @param gitDir - {@code .git} directory of the repository on the host
+   * @return fingerprint of the repository
+   */
+  public static String fingerprint(Path gitDir) {
+    try {
+      Map<String, String> refs = new TreeMap<>();
+      Path packedRefs = gitDir.resolve("packed-refs");
+      if (Files.isRegularFile(packedRefs)) {
+        for (String line : Files.readAllLines(packedRefs, StandardCharsets.UTF_8)) {
+          // comments and the peeled ids of annotated tags
+          if (line.startsWith("#") || line.startsWith("^") || line.isBlank()) {
+            continue;
+          }
+          String[] idAndName = line.split(" ", 2);
+          refs.put(idAndName[1], idAndName[0]);
+        }
+      }
+      Path refsDirectory = gitDir.resolve("refs");
+      if (Files.isDirectory(refsDirectory)) {
+        try (Stream<Path> files = Files.walk(refsDirectory)) {
+          for (Path file : files.filter(Files::isRegularFile).collect(Collectors.toList())) {
+            String name = gitDir.relativize(file).toString().replace('\\', '/');
+            refs.put(name, Files.readString(file, StandardCharsets.UTF_8).trim());
+          }
+        }
+      }
+      StringBuilder fingerprint = new StringBuilder();
+      fingerprint.append("HEAD ").append(readIfExists(gitDir.resolve("HEAD"))).append('\n');
+      fingerprint.append("config ").append(readIfExists(gitDir.resolve("config"))).append('\n');
+      refs.forEach((name, id) -> fingerprint.append(name).append(' ').append(id).append('\n'));
+      return fingerprint.toString();
+    } catch (IOException e) {
+      throw new RuntimeException("Reading " + gitDir + " failed", e);
+    }
+  }
+
+  private static String readIfExists(Path file) throws IOException {
+    return Files.isRegularFile(file) ? Files.readString(file, StandardCharsets.UTF_8).trim() : "";
+  }
+
+  private static DockerClient client() {
+    return DockerClientFactory.instance().client();
+  }
+}
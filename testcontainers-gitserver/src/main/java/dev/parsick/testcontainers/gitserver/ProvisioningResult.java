@@ -0,0 +1,191 @@
+package dev.parsick.testcontainers.gitserver;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/** Result of a {@link ProvisioningScript} execution. */
+public class ProvisioningResult {
+
+  private final List<StepResult> steps;
+  private final int exitCode;
+  private final String stderr;
+  private final Duration roundTripDuration;
+
+  /**
+   * @param steps - results of the executed steps
+   * @param exitCode - exit code of the whole script
+   * @param stderr - error output of the whole script
+   * @param roundTripDuration - duration of the exec call measured on the host
+   */
+  public ProvisioningResult(
+      List<StepResult> steps, int exitCode, String stderr, Duration roundTripDuration) {
+    this.steps = Collections.unmodifiableList(new ArrayList<>(steps));
+    this.exitCode = exitCode;
+    this.stderr = stderr;
+    this.roundTripDuration = roundTripDuration;
+  }
+
+  static ProvisioningResult parse(
+      String stdout, int exitCode, String stderr, Duration roundTripDuration) {
+    List<StepResult> steps = new ArrayList<>();
+    StringBuilder output = null;
+    for (String line : stdout.split("\n", -1)) {
+      if (!line.startsWith(ProvisioningScript.STEP_MARKER + " ")) {
+        if (output != null) {
+          output.append(line).append('\n');
+        }
+        continue;
+      }
+      String[] marker = line.split(" ", -1);
+      if ("start".equals(marker[1])) {
+        output = new StringBuilder();
+      } else if ("end".equals(marker[1]) && marker.length == 6 && output != null) {
+        steps.add(
+            new StepResult(
+                marker[2],
+                Integer.parseInt(marker[3]),
+                output.toString().stripTrailing(),
+                duration(marker[4], marker[5])));
+        output = null;
+      }
+    }
+    return new ProvisioningResult(steps, exitCode, stderr, roundTripDuration);
+  }
+
+  private static Duration duration(String startNanos, String endNanos) {
+    try {
+      return Duration.ofNanos(Long.parseLong(endNanos) - Long.parseLong(startNanos));
+    } catch (NumberFormatException e) {
+      // date of the image does not support nanoseconds
+      return Duration.ZERO;
+    }
+  }
+
+  /**
+   * @return results of all executed steps in execution order
+   */
+  public List<StepResult> getSteps() {
+    return steps;
+  }
+
+  /**
+   * Return the result of the step with the given name.
+   *
+   * @param name - name of the step
+   * @return result of the step or empty if the step was not executed
+   */
+  public Optional<StepResult> getStep(String name) {
+    return steps.stream().filter(step -> step.getName().equals(name)).findFirst();
+  }
+
+  /**
+   * @return the first failed step or empty if all steps were successful
+   */
+  public Optional<StepResult> getFailedStep() {
+    return steps.stream().filter(step -> !step.isSuccessful()).findFirst();
+  }
+
+  /**
+   * @return true if the script was executed completely without error
+   */
+  public boolean isSuccessful() {
+    return exitCode == 0;
+  }
+
+  /**
+   * @return exit code of the whole script
+   */
+  public int getExitCode() {
+    return exitCode;
+  }
+
+  /**
+   * @return error output of the whole script
+   */
+  public String getStderr() {
+    return stderr;
+  }
+
+  /**
+   * @return duration of the exec call measured on the host
+   */
+  public Duration getRoundTripDuration() {
+    return roundTripDuration;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder description = new StringBuilder("provisioning took " + roundTripDuration);
+    for (StepResult step : steps) {
+      description
+          .append(", ")
+          .append(step.getName())
+          .append('=')
+          .append(step.getDuration())
+          .append(" (exit code ")
+          .append(step.getExitCode())
+          .append(')');
+    }
+    return description.toString();
+  }
+
+  /** Result of a single provisioning step. */
+  public static class StepResult {
+
+    private final String name;
+    private final int exitCode;
+    private final String output;
+    private final Duration duration;
+
+    /**
+     * @param name - name of the step
+     * @param exitCode - exit code of the step
+     * @param output - combined standard and error output of the step
+     * @param duration - duration of the step measured inside the container
+     */
+    public StepResult(String name, int exitCode, String output, Duration duration) {
+      this.name = name;
+      this.exitCode = exitCode;
+      this.output = output;
+      this.duration = duration;
+    }
+
+    /**
+     * @return name of the step
+     */
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * @return exit code of the step
+     */
+    public int getExitCode() {
+      return exitCode;
+    }
+
+    /**
+     * @return true if the exit code is 0
+     */
+    public boolean isSuccessful() {
+      return exitCode == 0;
+    }
+
+    /**
+     * @return combined standard and error output of the step
+     */
+    public String getOutput() {
+      return output;
+    }
+
+    /**
+     * @return duration of the step measured inside the container, zero if unknown
+     */
+    public Duration getDuration() {
+      return duration;
+    }
+  }
+}
@@ -0,0 +1,151 @@
+package dev.parsick.testcontainers.gitserver;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.testcontainers.containers.Container.ExecResult;
+import org.testcontainers.containers.ContainerState;
+
+/**
+ * Collects the provisioning steps of a container and executes all of them with a single exec call.
+ *
+ * <p>Every step is a shell snippet that runs in its own subshell with {@code set -e}. The output
+ * of the script is annotated with markers, so that exit code, output and duration can be reported
+ * per step. A failing required step aborts the script; a failing optional step is only reported.
+ */
+public class ProvisioningScript {
+
+  static final String STEP_MARKER = "@@tc-git-step";
+
+  private final List<Step> steps = new ArrayList<>();
+
+  /**
+   * Add a required step. If the step fails, all following steps are skipped.
+   *
+   * @param name - name of the step, used for reporting
+   * @param command - shell snippet that is executed
+   * @return this script
+   */
+  public ProvisioningScript step(String name, String command) {
+    steps.add(new Step(name, command, true));
+    return this;
+  }
+
+  /**
+   * Add an optional step. If the step fails, the following steps are still executed.
+   *
+   * @param name - name of the step, used for reporting
+   * @param command - shell snippet that is executed
+   * @return this script
+   */
+  public ProvisioningScript optionalStep(String name, String command) {
+    steps.add(new Step(name, command, false));
+    return this;
+  }
+
+  /**
+   * @return true if no step was added
+   */
+  public boolean isEmpty() {
+    return steps.isEmpty();
+  }
+
+  /**
+   * Render all steps into one shell script.
+   *
+   * @return the shell script
+   */
+  public String render() {
+    StringBuilder script = new StringBuilder();
+    for (Step step : steps) {
+      String name = quote(step.name);
+      script
+          .append("printf '%s start %s\\n' ")
+          .append(STEP_MARKER)
+          .append(' ')
+          .append(name)
+          .append('\n')
+          .append("__start=$(date +%s%N)\n")
+          .append("(\nset -e\n")
+          .append(step.command)
+          .append("\n) 2>&1\n")
+          .append("__rc=$?\n")
+          .append("printf '\\n%s end %s %s %s %s\\n' ")
+          .append(STEP_MARKER)
+          .append(' ')
+          .append(name)
+          .append(" \"$__rc\" \"$__start\" \"$(date +%s%N)\"\n");
+      if (step.required) {
+        script.append("[ \"$__rc\" -eq 0 ] || exit \"$__rc\"\n");
+      }
+    }
+    return script.toString();
+  }
+
+  /**
+   * Execute all steps in the given container with one exec call.
+   *
+   * @param container - container in which the steps are executed
+   * @return result of every executed step
+   * @throws IOException if the exec call fails
+   * @throws InterruptedException if the exec call is interrupted
+   */
+  public ProvisioningResult execute(ContainerState container)
+      throws IOException, InterruptedException {
+    if (steps.isEmpty()) {
+      return new ProvisioningResult(List.of(), 0, "", Duration.ZERO);
+    }
+    long start = System.nanoTime();
+    ExecResult result = container.execInContainer("sh", "-c", render());
+    Duration roundTrip = Duration.ofNanos(System.nanoTime() - start);
+    return ProvisioningResult.parse(
+        result.getStdout(), result.getExitCode(), result.getStderr(), roundTrip);
+  }
+
+  /**
+   * Execute all steps in the given container with one exec call and fail if a required step fails.
+   *
+   * @param container - container in which the steps are executed
+   * @return result of every executed step
+   * @throws RuntimeException if the exec call or a required step fails
+   */
+  public ProvisioningResult executeOrFail(ContainerState container) {
+    try {
+      ProvisioningResult result = execute(container);
+      if (!result.isSuccessful()) {
+        String failure =
+            result
+                .getFailedStep()
+                .map(step -> "step '" + step.getName() + "' failed: " + step.getOutput())
+                .orElse("exit code " + result.getExitCode() + ": " + result.getStderr());
+        throw new RuntimeException("Provisioning failed, " + failure);
+      }
+      return result;
+    } catch (IOException | InterruptedException e) {
+      throw new RuntimeException("Provisioning failed", e);
+    }
+  }
+
+  /**
+   * Quote a value, so that it can be used as a single word in a shell snippet.
+   *
+   * @param value - value to quote
+   * @return single quoted value
+   */
+  public static String quote(String value) {
+    return "'" + value.replace("'", "'\\''") + "'";
+  }
+
+  private static class Step {
+    private final String name;
+    private final String command;
+    private final boolean required;
+
+    private Step(String name, String command, boolean required) {
+      this.name = name;
+      this.command = command;
+      this.required = required;
+    }
+  }
+}
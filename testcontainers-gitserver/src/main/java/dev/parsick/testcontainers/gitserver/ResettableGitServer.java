@@ -0,0 +1,43 @@
+package dev.parsick.testcontainers.gitserver;
+
+import static dev.parsick.testcontainers.gitserver.GitRepositoryCommands.REPOSITORIES_PATH;
+import static dev.parsick.testcontainers.gitserver.GitRepositoryCommands.SNAPSHOT_PATH;
+
+import org.testcontainers.containers.ContainerState;
+
+/**
+ * Git server container whose repositories can be reset to a recorded state.
+ *
+ * <p>A snapshot hard links all repositories below {@code /srv/git} into the hidden snapshot
+ * directory {@code /srv/git/.snapshot}. Git never changes object or ref files in place, it writes
+ * new files and renames them. So the hard links keep the recorded content, while the repositories
+ * are changed by the tests. Only the reflogs and the config, which are changed in place, are
+ * copied. Taking a snapshot and resetting to it take only milliseconds, independent of the
+ * repository size.
+ *
+ * <p>The snapshot directory is inside {@code /srv/git}, because hard links cannot cross file
+ * systems and {@code /srv/git} may be a volume or a tmpfs mount. The containers deny access to it
+ * via HTTP and the git protocol.
+ */
+public interface ResettableGitServer extends ContainerState {
+
+  /** Record the current state of all git repositories. A previous snapshot is replaced. */
+  default void snapshot() {
+    new ProvisioningScript()
+        .step("snapshot", GitRepositoryCommands.snapshot(REPOSITORIES_PATH, SNAPSHOT_PATH))
+        .executeOrFail(this);
+  }
+
+  /**
+   * Reset all git repositories to the state that was recorded with {@link #snapshot()}.
+   *
+   * <p>Repositories that were created after the snapshot are removed.
+   */
+  default void resetToSnapshot() {
+    new ProvisioningScript()
+        .step(
+            "reset-to-snapshot",
+            GitRepositoryCommands.resetToSnapshot(REPOSITORIES_PATH, SNAPSHOT_PATH))
+        .executeOrFail(this);
+  }
+}
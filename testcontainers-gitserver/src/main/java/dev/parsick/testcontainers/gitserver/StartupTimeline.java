@@ -0,0 +1,161 @@
+package dev.parsick.testcontainers.gitserver;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Durations of the phases of a container start, measured on the host.
+ *
+ * <p>The top level phases follow each other without gaps, so their durations add up to {@link
+ * #getTotal()}. A phase that runs several steps inside the container, like the provisioning
+ * script, has nested phases with the durations that the container measured.
+ */
+public class StartupTimeline {
+
+  /** Configuration of the container before the image is resolved. */
+  public static final String CONFIGURE_PHASE = "configure";
+
+  /** Pull or build of the image. */
+  public static final String IMAGE_PHASE = "image";
+
+  /** Creation of the container including the files that are copied before the start. */
+  public static final String CREATE_PHASE = "create";
+
+  /** Start of the container by the docker daemon. */
+  public static final String START_PHASE = "start";
+
+  /** Wait strategy of the container. */
+  public static final String WAIT_PHASE = "wait";
+
+  /** Provisioning script that is executed inside the started container. */
+  public static final String PROVISIONING_PHASE = "provisioning";
+
+  private final List<Phase> phases;
+  private final Duration total;
+
+  /**
+   * @param phases - top level and nested phases in the order of their start
+   * @param total - duration from the start of the first phase to the end of the last phase
+   */
+  public StartupTimeline(List<Phase> phases, Duration total) {
+    this.phases = Collections.unmodifiableList(new ArrayList<>(phases));
+    this.total = total;
+  }
+
+  /**
+   * @return top level and nested phases in the order of their start
+   */
+  public List<Phase> getPhases() {
+    return phases;
+  }
+
+  /**
+   * Return the first phase with the given name.
+   *
+   * @param name - name of the phase
+   * @return phase or empty if the phase was not part of the start
+   */
+  public Optional<Phase> getPhase(String name) {
+    return phases.stream().filter(phase -> phase.getName().equals(name)).findFirst();
+  }
+
+  /**
+   * @return top level phase with the longest duration, empty if no phase was recorded
+   */
+  public Optional<Phase> getSlowestPhase() {
+    return phases.stream()
+        .filter(phase -> phase.getParent() == null)
+        .max(Comparator.comparing(Phase::getDuration));
+  }
+
+  /**
+   * @return duration from the start of the first phase to the end of the last phase
+   */
+  public Duration getTotal() {
+    return total;
+  }
+
+  @Override
+  public String toString() {
+    return phases.stream()
+            .filter(phase -> phase.getParent() == null)
+            .map(this::describe)
+            .collect(Collectors.joining(", "))
+        + ", total "
+        + total.toMillis()
+        + " ms";
+  }
+
+  private String describe(Phase phase) {
+    String nested =
+        phases.stream()
+            .filter(child -> phase.getName().equals(child.getParent()))
+            .map(child -> child.getName() + " " + child.getDuration().toMillis() + " ms")
+            .collect(Collectors.joining(", "));
+    return phase.getName()
+        + " "
+        + phase.getDuration().toMillis()
+        + " ms"
+        + (nested.isEmpty() ? "" : " (" + nested + ")");
+  }
+
+  /** A phase of the container start. */
+  public static class Phase {
+
+    private final String name;
+    private final String parent;
+    private final Duration offset;
+    private final Duration duration;
+
+    /**
+     * @param name - name of the phase
+     * @param parent - name of the enclosing phase, null for a top level phase
+     * @param offset - time from the start of the timeline to the start of the phase
+     * @param duration - duration of the phase
+     */
+    public Phase(String name, String parent, Duration offset, Duration duration) {
+      this.name = name;
+      this.parent = parent;
+      this.offset = offset;
+      this.duration = duration;
+    }
+
+    /**
+     * @return name of the phase
+     */
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * @return name of the enclosing phase, null for a top level phase
+     */
+    public String getParent() {
+      return parent;
+    }
+
+    /**
+     * @return time from the start of the timeline to the start of the phase
+     */
+    public Duration getOffset() {
+      return offset;
+    }
+
+    /**
+     * @return duration of the phase
+     */
+    public Duration getDuration() {
+      return duration;
+    }
+
+    @Override
+    public String toString() {
+      return name + " " + duration.toMillis() + " ms";
+    }
+  }
+}
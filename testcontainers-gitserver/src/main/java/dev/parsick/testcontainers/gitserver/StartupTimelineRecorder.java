@@ -0,0 +1,62 @@
+package dev.parsick.testcontainers.gitserver;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the phases of a container start from the lifecycle hooks of the container.
+ *
+ * <p>Each {@link #lap(String)} ends a phase that started with the previous lap, so the phases
+ * cover the whole start without gaps.
+ */
+public class StartupTimelineRecorder {
+
+  private final List<StartupTimeline.Phase> phases = new ArrayList<>();
+  private long startNanos;
+  private long lapNanos;
+
+  /** Start a new timeline, e.g. at the beginning of {@code configure()}. */
+  public void begin() {
+    phases.clear();
+    startNanos = System.nanoTime();
+    lapNanos = startNanos;
+  }
+
+  /**
+   * End the current phase.
+   *
+   * @param phase - name of the phase that ends now
+   */
+  public void lap(String phase) {
+    long now = System.nanoTime();
+    Duration offset = Duration.ofNanos(lapNanos - startNanos);
+    phases.add(new StartupTimeline.Phase(phase, null, offset, Duration.ofNanos(now - lapNanos)));
+    lapNanos = now;
+  }
+
+  /**
+   * End the current phase that executed a provisioning script. The steps of the script become
+   * nested phases with the durations that the container measured.
+   *
+   * @param phase - name of the phase that ends now
+   * @param provisioningResult - result of the provisioning script
+   */
+  public void lap(String phase, ProvisioningResult provisioningResult) {
+    Duration offset = Duration.ofNanos(lapNanos - startNanos);
+    lap(phase);
+    for (ProvisioningResult.StepResult step : provisioningResult.getSteps()) {
+      phases.add(new StartupTimeline.Phase(step.getName(), phase, offset, step.getDuration()));
+      offset = offset.plus(step.getDuration());
+    }
+  }
+
+  /**
+   * Finish the timeline.
+   *
+   * @return recorded phases
+   */
+  public StartupTimeline finish() {
+    return new StartupTimeline(phases, Duration.ofNanos(lapNanos - startNanos));
+  }
+}
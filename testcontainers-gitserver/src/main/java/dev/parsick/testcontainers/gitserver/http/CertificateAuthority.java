@@ -0,0 +1,340 @@
+package dev.parsick.testcontainers.gitserver.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.security.Signature;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Self-signed certificate authority that issues the server certificates of the HTTPS listener in
+ * the JVM.
+ *
+ * <p>The certificates are encoded by hand (X.509 v3, DER), so neither a library nor openssl inside
+ * the container is needed. All keys are ECDSA P-256 keys, signed with SHA-256. The authority is
+ * generated once per JVM, see {@link #cached()}, so clients have to trust only one certificate.
+ */
+final class CertificateAuthority {
+
+  private static final String COMMON_NAME = "testcontainers-git CA";
+  private static final Duration VALIDITY = Duration.ofDays(365);
+  private static final SecureRandom RANDOM = new SecureRandom();
+
+  private static final String OID_COMMON_NAME = "2.5.4.3";
+  private static final String OID_ECDSA_WITH_SHA256 = "1.2.840.10045.4.3.2";
+  private static final String OID_SUBJECT_KEY_IDENTIFIER = "2.5.29.14";
+  private static final String OID_KEY_USAGE = "2.5.29.15";
+  private static final String OID_SUBJECT_ALT_NAME = "2.5.29.17";
+  private static final String OID_BASIC_CONSTRAINTS = "2.5.29.19";
+  private static final String OID_AUTHORITY_KEY_IDENTIFIER = "2.5.29.35";
+  private static final String OID_EXTENDED_KEY_USAGE = "2.5.29.37";
+  private static final String OID_SERVER_AUTH = "1.3.6.1.5.5.7.3.1";
+
+  // key usage bits keyCertSign and cRLSign, digitalSignature
+  private static final byte[] CA_KEY_USAGE = {0x03, 0x02, 0x01, 0x06};
+  private static final byte[] SERVER_KEY_USAGE = {0x03, 0x02, 0x07, (byte) 0x80};
+
+  private final KeyPair keyPair;
+  private final X509Certificate certificate;
+
+  private CertificateAuthority() throws GeneralSecurityException {
+    keyPair = generateKeyPair();
+    byte[] keyIdentifier = keyIdentifier(keyPair.getPublic());
+    certificate =
+        sign(
+            name(COMMON_NAME),
+            keyPair.getPublic(),
+            List.of(
+                extension(OID_BASIC_CONSTRAINTS, true, sequence(bool(true))),
+                extension(OID_KEY_USAGE, true, CA_KEY_USAGE),
+                extension(OID_SUBJECT_KEY_IDENTIFIER, false, octetString(keyIdentifier))));
+  }
+
+  /**
+   * @return certificate authority that is generated once per JVM
+   */
+  static CertificateAuthority cached() {
+    return Holder.INSTANCE;
+  }
+
+  /**
+   * @return certificate of the authority
+   */
+  X509Certificate getCertificate() {
+    return certificate;
+  }
+
+  /**
+   * Issue a certificate for a TLS server.
+   *
+   * @param hostnames - host names or IP addresses of the server, the first one is the common name
+   * @return key pair and certificate of the server
+   */
+  ServerCertificate issueServerCertificate(List<String> hostnames) {
+    try {
+      KeyPair serverKeyPair = generateKeyPair();
+      List<byte[]> alternativeNames = new ArrayList<>();
+      for (String hostname : hostnames) {
+        alternativeNames.add(alternativeName(hostname));
+      }
+      X509Certificate serverCertificate =
+          sign(
+              name(hostnames.get(0)),
+              serverKeyPair.getPublic(),
+              List.of(
+                  extension(OID_BASIC_CONSTRAINTS, true, sequence()),
+                  extension(OID_KEY_USAGE, true, SERVER_KEY_USAGE),
+                  extension(OID_EXTENDED_KEY_USAGE, false, sequence(oid(OID_SERVER_AUTH))),
+                  extension(
+                      OID_SUBJECT_ALT_NAME,
+                      false,
+                      sequence(alternativeNames.toArray(new byte[0][]))),
+                  extension(
+                      OID_AUTHORITY_KEY_IDENTIFIER,
+                      false,
+                      sequence(tagged(0x80, keyIdentifier(keyPair.getPublic()))))));
+      return new ServerCertificate(serverKeyPair.getPrivate(), serverCertificate, certificate);
+    } catch (GeneralSecurityException | UnknownHostException e) {
+      throw new RuntimeException("Issuing the server certificate failed", e);
+    }
+  }
+
+  private X509Certificate sign(byte[] subject, PublicKey publicKey, List<byte[]> extensions)
+      throws GeneralSecurityException {
+    Instant now = Instant.now();
+    byte[] serialNumber = new byte[16];
+    RANDOM.nextBytes(serialNumber);
+    byte[] signatureAlgorithm = sequence(oid(OID_ECDSA_WITH_SHA256));
+    byte[] tbsCertificate =
+        sequence(
+            tagged(0xa0, integer(BigInteger.valueOf(2))),
+            integer(new BigInteger(1, serialNumber)),
+            signatureAlgorithm,
+            name(COMMON_NAME),
+            sequence(time(now.minus(Duration.ofHours(1))), time(now.plus(VALIDITY))),
+            subject,
+            publicKey.getEncoded(),
+            tagged(0xa3, sequence(extensions.toArray(new byte[0][]))));
+
+    Signature signature = Signature.getInstance("SHA256withECDSA");
+    signature.initSign(keyPair.getPrivate());
+    signature.update(tbsCertificate);
+    byte[] certificate =
+        sequence(tbsCertificate, signatureAlgorithm, bitString(signature.sign()));
+
+    return (X509Certificate)
+        CertificateFactory.getInstance("X.509")
+            .generateCertificate(new ByteArrayInputStream(certificate));
+  }
+
+  private static KeyPair generateKeyPair() throws GeneralSecurityException {
+    KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+    generator.initialize(new ECGenParameterSpec("secp256r1"), RANDOM);
+    return generator.generateKeyPair();
+  }
+
+  private static byte[] keyIdentifier(PublicKey publicKey) throws GeneralSecurityException {
+    return MessageDigest.getInstance("SHA-1").digest(publicKey.getEncoded());
+  }
+
+  private static byte[] name(String commonName) {
+    byte[] value = tagged(0x0c, commonName.getBytes(StandardCharsets.UTF_8));
+    return sequence(set(sequence(oid(OID_COMMON_NAME), value)));
+  }
+
+  private static byte[] alternativeName(String hostname) throws UnknownHostException {
+    if (hostname.matches("[0-9.]+") || hostname.contains(":")) {
+      // an IP literal is not resolved
+      return tagged(0x87, InetAddress.getByName(hostname).getAddress());
+    }
+    return tagged(0x82, hostname.getBytes(StandardCharsets.US_ASCII));
+  }
+
+  private static byte[] extension(String oid, boolean critical, byte[] value) {
+    return critical
+        ? sequence(oid(oid), bool(true), octetString(value))
+        : sequence(oid(oid), octetString(value));
+  }
+
+  /** UTCTime until 2049 and GeneralizedTime from 2050 on, as required by RFC 5280. */
+  private static byte[] time(Instant instant) {
+    if (instant.atZone(ZoneOffset.UTC).getYear() < 2050) {
+      return tagged(0x17, format("yyMMddHHmmss'Z'", instant));
+    }
+    return tagged(0x18, format("yyyyMMddHHmmss'Z'", instant));
+  }
+
+  private static byte[] format(String pattern, Instant instant) {
+    return DateTimeFormatter.ofPattern(pattern)
+        .withZone(ZoneOffset.UTC)
+        .format(instant)
+        .getBytes(StandardCharsets.US_ASCII);
+  }
+
+  private static byte[] oid(String oid) {
+    String[] arcs = oid.split("\\.");
+    ByteArrayOutputStream content = new ByteArrayOutputStream();
+    content.write(Integer.parseInt(arcs[0]) * 40 + Integer.parseInt(arcs[1]));
+    for (int i = 2; i < arcs.length; i++) {
+      long arc = Long.parseLong(arcs[i]);
+      // base 128, most significant group first, all groups but the last with the high bit
+      int groups = 1;
+      while (arc >> (7 * groups) != 0) {
+        groups++;
+      }
+      for (int group = groups - 1; group >= 0; group--) {
+        int bits = (int) ((arc >> (7 * group)) & 0x7f);
+        content.write(group == 0 ? bits : bits | 0x80);
+      }
+    }
+    return tagged(0x06, content.toByteArray());
+  }
+
+  private static byte[] integer(BigInteger value) {
+    return tagged(0x02, value.toByteArray());
+  }
+
+  private static byte[] bool(boolean value) {
+    return tagged(0x01, new byte[] {(byte) (value ? 0xff : 0x00)});
+  }
+
+  private static byte[] bitString(byte[] value) {
+    byte[] content = new byte[value.length + 1];
+    System.arraycopy(value, 0, content, 1, value.length);
+    return tagged(0x03, content);
+  }
+
+  private static byte[] octetString(byte[] value) {
+    return tagged(0x04, value);
+  }
+
+  private static byte[] sequence(byte[]... elements) {
+    return tagged(0x30, concat(elements));
+  }
+
+  private static byte[] set(byte[]... elements) {
+    return tagged(0x31, concat(elements));
+  }
+
+  private static byte[] tagged(int tag, byte[] content) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    out.write(tag);
+    int length = content.length;
+    if (length < 0x80) {
+      out.write(length);
+    } else if (length < 0x100) {
+      out.write(0x81);
+      out.write(length);
+    } else if (length < 0x10000) {
+      out.write(0x82);
+      out.write(length >> 8);
+      out.write(length);
+    } else {
+      out.write(0x83);
+      out.write(length >> 16);
+      out.write(length >> 8);
+      out.write(length);
+    }
+    out.write(content, 0, content.length);
+    return out.toByteArray();
+  }
+
+  private static byte[] concat(byte[]... parts) {
+    ByteArrayOutputStream result = new ByteArrayOutputStream();
+    for (byte[] part : parts) {
+      result.write(part, 0, part.length);
+    }
+    return result.toByteArray();
+  }
+
+  private static String pem(String type, byte[] content) {
+    Base64.Encoder encoder = Base64.getMimeEncoder(64, "\n".getBytes(StandardCharsets.US_ASCII));
+    return "-----BEGIN "
+        + type
+        + "-----\n"
+        + encoder.encodeToString(content)
+        + "\n-----END "
+        + type
+        + "-----\n";
+  }
+
+  /**
+   * @param certificate - certificate
+   * @return certificate in PEM format
+   */
+  static String toPem(X509Certificate certificate) {
+    try {
+      return pem("CERTIFICATE", certificate.getEncoded());
+    } catch (GeneralSecurityException e) {
+      throw new RuntimeException("Encoding the certificate failed", e);
+    }
+  }
+
+  /** Key and certificate chain of a TLS server. */
+  static final class ServerCertificate {
+
+    private final PrivateKey privateKey;
+    private final X509Certificate certificate;
+    private final X509Certificate issuer;
+
+    private ServerCertificate(
+        PrivateKey privateKey, X509Certificate certificate, X509Certificate issuer) {
+      this.privateKey = privateKey;
+      this.certificate = certificate;
+      this.issuer = issuer;
+    }
+
+    /**
+     * @return private key in PKCS#8 PEM format
+     */
+    String privateKeyPem() {
+      return pem("PRIVATE KEY", privateKey.getEncoded());
+    }
+
+    /**
+     * @return server certificate followed by the certificate of the authority in PEM format
+     */
+    String certificateChainPem() {
+      return toPem(certificate) + toPem(issuer);
+    }
+
+    /**
+     * @return server certificate
+     */
+    X509Certificate getCertificate() {
+      return certificate;
+    }
+  }
+
+  private static final class Holder {
+
+    static final CertificateAuthority INSTANCE = create();
+
+    private static CertificateAuthority create() {
+      try {
+        return new CertificateAuthority();
+      } catch (GeneralSecurityException e) {
+        throw new RuntimeException("Generating the certificate authority failed", e);
+      }
+    }
+  }
+}
@@ -0,0 +1,377 @@
+package dev.parsick.testcontainers.gitserver.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import dev.parsick.testcontainers.gitserver.EmbeddedGitRepositories;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.transport.PacketLineOut;
+import org.eclipse.jgit.transport.ReceivePack;
+import org.eclipse.jgit.transport.RefAdvertiser;
+import org.eclipse.jgit.transport.UploadPack;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testcontainers.lifecycle.Startable;
+
+/**
+ * Git HTTP server that runs inside the JVM, with the same API as the {@link
+ * GitHttpServerContainer}.
+ *
+ * <p>The smart HTTP protocol is served by JGit on the HTTP server of the JDK, so the server starts
+ * in milliseconds and needs no docker. Push is enabled for all repositories. The repositories are
+ * kept in a temporary directory that is deleted when the server stops, unless a directory is set
+ * with {@link #withRepositoryDirectory(Path)}.
+ *
+ * <p>It implements {@link Startable}, so it can be used with the {@code @Container} annotation
+ * like a container. Use the container for tests of the compatibility with the git command line.
+ *
+ * <p>JGit ({@code org.eclipse.jgit:org.eclipse.jgit}) has to be on the classpath.
+ */
+public class EmbeddedGitHttpServer implements Startable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(EmbeddedGitHttpServer.class);
+
+  private static final String CONTEXT_PATH = "/git/";
+  private static final String INFO_REFS = "/info/refs";
+  private static final String UPLOAD_PACK = "git-upload-pack";
+  private static final String RECEIVE_PACK = "git-receive-pack";
+
+  private final EmbeddedGitRepositories repositories = new EmbeddedGitRepositories();
+  private final List<BasicAuthenticationCredentials> basicAuthenticationCredentials =
+      new ArrayList<>();
+  private HttpServer httpServer;
+  private ExecutorService executor;
+
+  public EmbeddedGitHttpServer() {
+    this(null);
+  }
+
+  /**
+   * @param basicAuthenticationCredentials - credentials for basic authentication
+   */
+  public EmbeddedGitHttpServer(BasicAuthenticationCredentials basicAuthenticationCredentials) {
+    if (basicAuthenticationCredentials != null) {
+      withBasicAuthCredentials(basicAuthenticationCredentials);
+    }
+  }
+
+  /**
+   * Enable basic authentication for the given users.
+   *
+   * @param basicAuthenticationCredentials - credentials of the users
+   * @return instance of the git server
+   */
+  public EmbeddedGitHttpServer withBasicAuthCredentials(
+      BasicAuthenticationCredentials... basicAuthenticationCredentials) {
+    this.basicAuthenticationCredentials.addAll(Arrays.asList(basicAuthenticationCredentials));
+    return this;
+  }
+
+  /**
+   * Override the default git repository name.
+   *
+   * <p>Default name is "testRepo"
+   *
+   * @param gitRepoName - name of the git repository that is created by default
+   * @return instance of the git server
+   */
+  public EmbeddedGitHttpServer withGitRepo(String gitRepoName) {
+    repositories.withGitRepo(gitRepoName);
+    return this;
+  }
+
+  /**
+   * Create additional git repositories besides the default one.
+   *
+   * @param gitRepoNames - names of the additional git repositories
+   * @return instance of the git server
+   */
+  public EmbeddedGitHttpServer withGitRepos(String... gitRepoNames) {
+    repositories.withGitRepos(gitRepoNames);
+    return this;
+  }
+
+  /**
+   * Store the repositories as bare repositories in the given directory instead of a temporary
+   * directory, so that they are kept after the server stops.
+   *
+   * @param directory - directory on the host, e.g. a temporary directory of the test
+   * @return instance of the git server
+   */
+  public EmbeddedGitHttpServer withRepositoryDirectory(Path directory) {
+    repositories.withDirectory(directory);
+    return this;
+  }
+
+  @Override
+  public void start() {
+    if (httpServer != null) {
+      return;
+    }
+    repositories.open();
+    executor =
+        Executors.newCachedThreadPool(
+            runnable -> {
+              Thread thread = new Thread(runnable, "embedded-git-http-server");
+              thread.setDaemon(true);
+              return thread;
+            });
+    try {
+      httpServer =
+          HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    } catch (IOException e) {
+      stop();
+      throw new RuntimeException("Starting the embedded git http server failed", e);
+    }
+    httpServer.createContext(CONTEXT_PATH, this::handle);
+    httpServer.setExecutor(executor);
+    httpServer.start();
+  }
+
+  @Override
+  public void stop() {
+    if (httpServer != null) {
+      httpServer.stop(0);
+      httpServer = null;
+    }
+    if (executor != null) {
+      executor.shutdownNow();
+      executor = null;
+    }
+    repositories.close();
+  }
+
+  /**
+   * @return loopback address on which the server listens
+   */
+  public String getHost() {
+    String address = InetAddress.getLoopbackAddress().getHostAddress();
+    return address.contains(":") ? "[" + address + "]" : address;
+  }
+
+  /**
+   * @return port of the server
+   */
+  public int getPort() {
+    if (httpServer == null) {
+      throw new IllegalStateException("Server is not started");
+    }
+    return httpServer.getAddress().getPort();
+  }
+
+  /**
+   * Return the HTTP URI for git repo.
+   *
+   * @return HTTP URI
+   */
+  public URI getGitRepoURIAsHttp() {
+    return getGitRepoURIAsHttp(repositories.getGitRepoName());
+  }
+
+  /**
+   * Return the HTTP URI for the git repo with the given name.
+   *
+   * @param gitRepoName - name of the default repository or of a repository added with {@code
+   *     withGitRepos}
+   * @return HTTP URI
+   */
+  public URI getGitRepoURIAsHttp(String gitRepoName) {
+    if (!repositories.getGitRepoNames().contains(gitRepoName)) {
+      throw new IllegalArgumentException("Unknown git repo name: " + gitRepoName);
+    }
+    return URI.create(
+        "http://" + getHost() + ":" + getPort() + CONTEXT_PATH + gitRepoName + ".git");
+  }
+
+  /**
+   * Return the names of all git repositories, the default repository first.
+   *
+   * @return names of the git repositories
+   */
+  public List<String> getGitRepoNames() {
+    return repositories.getGitRepoNames();
+  }
+
+  /**
+   * Return the JGit repository with the given name, e.g. to prepare or verify its content without
+   * a clone.
+   *
+   * @param gitRepoName - name of the default repository or of a repository added with {@code
+   *     withGitRepos}
+   * @return repository, only usable while the server is started
+   */
+  public Repository getRepository(String gitRepoName) {
+    return repositories.getRepository(gitRepoName);
+  }
+
+  /**
+   * Return credentials for basic authentication
+   *
+   * @return credentials of the first user for basic authentication or null if basic
+   *     authentication is disabled
+   */
+  public BasicAuthenticationCredentials getBasicAuthCredentials() {
+    return basicAuthenticationCredentials.isEmpty() ? null : basicAuthenticationCredentials.get(0);
+  }
+
+  /**
+   * Return credentials of all users for basic authentication
+   *
+   * @return credentials of all users, empty if basic authentication is disabled
+   */
+  public List<BasicAuthenticationCredentials> getAllBasicAuthCredentials() {
+    return Collections.unmodifiableList(basicAuthenticationCredentials);
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    try {
+      if (!isAuthorized(exchange)) {
+        exchange.getResponseHeaders().set("WWW-Authenticate", "Basic realm=\"Restricted\"");
+        exchange.sendResponseHeaders(401, -1);
+        return;
+      }
+      String path = exchange.getRequestURI().getPath().substring(CONTEXT_PATH.length());
+      int separator = path.indexOf('/');
+      Optional<Repository> repository =
+          separator < 0
+              ? Optional.empty()
+              : repositories.findRepository(path.substring(0, separator));
+      if (repository.isEmpty()) {
+        exchange.sendResponseHeaders(404, -1);
+        return;
+      }
+      String service = path.substring(separator);
+      String method = exchange.getRequestMethod();
+      if ("GET".equals(method) && INFO_REFS.equals(service)) {
+        advertiseRefs(exchange, repository.get());
+      } else if ("POST".equals(method) && service.equals("/" + UPLOAD_PACK)) {
+        uploadPack(exchange, repository.get());
+      } else if ("POST".equals(method) && service.equals("/" + RECEIVE_PACK)) {
+        receivePack(exchange, repository.get());
+      } else {
+        // the dumb http protocol is not supported
+        exchange.sendResponseHeaders(404, -1);
+      }
+    } catch (IOException | RuntimeException e) {
+      LOGGER.warn("Request {} failed", exchange.getRequestURI(), e);
+      throw e;
+    } finally {
+      exchange.close();
+    }
+  }
+
+  private void advertiseRefs(HttpExchange exchange, Repository repository) throws IOException {
+    String service = queryParameter(exchange.getRequestURI(), "service");
+    if (!UPLOAD_PACK.equals(service) && !RECEIVE_PACK.equals(service)) {
+      exchange.sendResponseHeaders(403, -1);
+      return;
+    }
+    ByteArrayOutputStream advertisement = new ByteArrayOutputStream();
+    PacketLineOut packetLineOut = new PacketLineOut(advertisement);
+    packetLineOut.writeString("# service=" + service + "\n");
+    packetLineOut.end();
+    RefAdvertiser refAdvertiser = new RefAdvertiser.PacketLineOutRefAdvertiser(packetLineOut);
+    if (UPLOAD_PACK.equals(service)) {
+      UploadPack uploadPack = new UploadPack(repository);
+      uploadPack.setBiDirectionalPipe(false);
+      uploadPack.sendAdvertisedRefs(refAdvertiser);
+    } else {
+      ReceivePack receivePack = new ReceivePack(repository);
+      receivePack.setBiDirectionalPipe(false);
+      receivePack.sendAdvertisedRefs(refAdvertiser);
+    }
+    byte[] body = advertisement.toByteArray();
+    exchange
+        .getResponseHeaders()
+        .set("Content-Type", "application/x-" + service + "-advertisement");
+    exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+    exchange.sendResponseHeaders(200, body.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(body);
+    }
+  }
+
+  private void uploadPack(HttpExchange exchange, Repository repository) throws IOException {
+    UploadPack uploadPack = new UploadPack(repository);
+    uploadPack.setBiDirectionalPipe(false);
+    exchange.getResponseHeaders().set("Content-Type", "application/x-git-upload-pack-result");
+    exchange.sendResponseHeaders(200, 0);
+    try (InputStream in = requestBody(exchange);
+        OutputStream out = exchange.getResponseBody()) {
+      uploadPack.upload(in, out, null);
+    }
+  }
+
+  private void receivePack(HttpExchange exchange, Repository repository) throws IOException {
+    ReceivePack receivePack = new ReceivePack(repository);
+    receivePack.setBiDirectionalPipe(false);
+    exchange.getResponseHeaders().set("Content-Type", "application/x-git-receive-pack-result");
+    exchange.sendResponseHeaders(200, 0);
+    try (InputStream in = requestBody(exchange);
+        OutputStream out = exchange.getResponseBody()) {
+      receivePack.receive(in, out, null);
+    }
+  }
+
+  private static InputStream requestBody(HttpExchange exchange) throws IOException {
+    String contentEncoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+    if ("gzip".equals(contentEncoding) || "x-gzip".equals(contentEncoding)) {
+      return new GZIPInputStream(exchange.getRequestBody());
+    }
+    return exchange.getRequestBody();
+  }
+
+  private boolean isAuthorized(HttpExchange exchange) {
+    if (basicAuthenticationCredentials.isEmpty()) {
+      return true;
+    }
+    String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+    if (authorization == null || !authorization.startsWith("Basic ")) {
+      return false;
+    }
+    String userAndPassword;
+    try {
+      userAndPassword =
+          new String(
+              Base64.getDecoder().decode(authorization.substring("Basic ".length()).trim()),
+              StandardCharsets.UTF_8);
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
+    return basicAuthenticationCredentials.stream()
+        .anyMatch(
+            credentials ->
+                userAndPassword.equals(
+                    credentials.getUsername() + ":" + credentials.getPassword()));
+  }
+
+  private static String queryParameter(URI uri, String name) {
+    String query = uri.getQuery();
+    if (query == null) {
+      return null;
+    }
+    for (String parameter : query.split("&")) {
+      if (parameter.startsWith(name + "=")) {
+        return parameter.substring(name.length() + 1);
+      }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,297 @@
+package dev.parsick.testcontainers.gitserver.http;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Access log of the nginx of the {@link GitHttpServerContainer}.
+ *
+ * <p>nginx writes one tab separated line per request with the time, method, URI, git service,
+ * status, request and response size, the request time and the time that {@code git-http-backend}
+ * needed. The request time is measured by nginx from the first byte of the request to the last
+ * byte of the response, so it is the latency on the server side without the docker network.
+ */
+public class GitHttpAccessLog {
+
+  /** Path of the access log inside the container. */
+  public static final String PATH = "/var/log/nginx/access.log";
+
+  private static final String UPLOAD_PACK = "git-upload-pack";
+  private static final String RECEIVE_PACK = "git-receive-pack";
+  private static final int FIELD_COUNT = 9;
+
+  private final List<Entry> entries;
+
+  /**
+   * @param entries - entries in the order of the log
+   */
+  public GitHttpAccessLog(List<Entry> entries) {
+    this.entries = Collections.unmodifiableList(new ArrayList<>(entries));
+  }
+
+  /**
+   * Read an access log. The lines are parsed while they are read, so the log is not held in memory
+   * as text.
+   *
+   * @param accessLog - content of the access log
+   * @return access log
+   * @throws IOException if the log cannot be read
+   */
+  public static GitHttpAccessLog read(InputStream accessLog) throws IOException {
+    List<Entry> entries = new ArrayList<>();
+    stream(accessLog, entries::add);
+    return new GitHttpAccessLog(entries);
+  }
+
+  /**
+   * Pass each entry of an access log to the given consumer while it is read.
+   *
+   * @param accessLog - content of the access log
+   * @param consumer - consumer of the entries
+   * @throws IOException if the log cannot be read
+   */
+  public static void stream(InputStream accessLog, Consumer<Entry> consumer) throws IOException {
+    BufferedReader reader =
+        new BufferedReader(new InputStreamReader(accessLog, StandardCharsets.UTF_8));
+    String line;
+    while ((line = reader.readLine()) != null) {
+      if (!line.isBlank()) {
+        consumer.accept(Entry.parse(line));
+      }
+    }
+  }
+
+  /**
+   * @return entries in the order of the log
+   */
+  public List<Entry> getEntries() {
+    return entries;
+  }
+
+  /**
+   * Return the latencies of the requests of the given operation.
+   *
+   * @param operation - git operation
+   * @return histogram of the request times, empty if there was no request of the operation
+   */
+  public LatencyHistogram getLatencyHistogram(Operation operation) {
+    LatencyHistogram histogram = new LatencyHistogram();
+    entries.stream()
+        .filter(entry -> entry.getOperation() == operation)
+        .forEach(entry -> histogram.record(entry.getRequestTime()));
+    return histogram;
+  }
+
+  /**
+   * @return histograms of the request times of all operations that occur in the log
+   */
+  public Map<Operation, LatencyHistogram> getLatencyHistograms() {
+    Map<Operation, LatencyHistogram> histograms = new EnumMap<>(Operation.class);
+    for (Entry entry : entries) {
+      histograms
+          .computeIfAbsent(entry.getOperation(), operation -> new LatencyHistogram())
+          .record(entry.getRequestTime());
+    }
+    return histograms;
+  }
+
+  /** Git operation of a request. */
+  public enum Operation {
+    /** Ref advertisement for a fetch or clone ({@code GET info/refs?service=git-upload-pack}). */
+    UPLOAD_PACK_ADVERTISEMENT,
+    /** Negotiation and pack transfer of a fetch or clone ({@code POST git-upload-pack}). */
+    UPLOAD_PACK,
+    /** Ref advertisement for a push ({@code GET info/refs?service=git-receive-pack}). */
+    RECEIVE_PACK_ADVERTISEMENT,
+    /** Pack transfer and ref update of a push ({@code POST git-receive-pack}). */
+    RECEIVE_PACK,
+    /** Any other request, e.g. of the dumb protocol. */
+    OTHER
+  }
+
+  /** A request in the access log. */
+  public static class Entry {
+
+    private final Instant time;
+    private final String method;
+    private final String uri;
+    private final String service;
+    private final int status;
+    private final long requestLength;
+    private final long bytesSent;
+    private final Duration requestTime;
+    private final Duration upstreamResponseTime;
+
+    /**
+     * @param time - end of the request
+     * @param method - HTTP method
+     * @param uri - path of the request
+     * @param service - git service or null
+     * @param status - HTTP status
+     * @param requestLength - bytes received including the request line and headers
+     * @param bytesSent - bytes sent including the headers
+     * @param requestTime - time from the first byte of the request to the last byte of the response
+     * @param upstreamResponseTime - time of {@code git-http-backend} or null
+     */
+    public Entry(
+        Instant time,
+        String method,
+        String uri,
+        String service,
+        int status,
+        long requestLength,
+        long bytesSent,
+        Duration requestTime,
+        Duration upstreamResponseTime) {
+      this.time = time;
+      this.method = method;
+      this.uri = uri;
+      this.service = service;
+      this.status = status;
+      this.requestLength = requestLength;
+      this.bytesSent = bytesSent;
+      this.requestTime = requestTime;
+      this.upstreamResponseTime = upstreamResponseTime;
+    }
+
+    /**
+     * Parse a line of the access log.
+     *
+     * @param line - tab separated line
+     * @return entry
+     */
+    public static Entry parse(String line) {
+      String[] fields = line.split("\t", -1);
+      if (fields.length != FIELD_COUNT) {
+        throw new IllegalArgumentException("Unexpected access log line: " + line);
+      }
+      try {
+        return new Entry(
+            Instant.ofEpochMilli(seconds(fields[0]).toMillis()),
+            fields[1],
+            fields[2],
+            "-".equals(fields[3]) ? null : fields[3],
+            Integer.parseInt(fields[4]),
+            Long.parseLong(fields[5]),
+            Long.parseLong(fields[6]),
+            seconds(fields[7]),
+            upstreamSeconds(fields[8]));
+      } catch (RuntimeException e) {
+        throw new IllegalArgumentException("Unexpected access log line: " + line, e);
+      }
+    }
+
+    /** nginx logs times as seconds with millisecond resolution, e.g. {@code 0.012}. */
+    private static Duration seconds(String value) {
+      return Duration.ofNanos(new BigDecimal(value.trim()).movePointRight(9).longValueExact());
+    }
+
+    /** Sum of all upstream attempts, which nginx separates with a comma. */
+    private static Duration upstreamSeconds(String value) {
+      if ("-".equals(value)) {
+        return null;
+      }
+      Duration sum = Duration.ZERO;
+      for (String attempt : value.split("[,:]")) {
+        if (!attempt.isBlank() && !"-".equals(attempt.trim())) {
+          sum = sum.plus(seconds(attempt));
+        }
+      }
+      return sum;
+    }
+
+    /**
+     * @return git operation of the request
+     */
+    public Operation getOperation() {
+      boolean advertisement = uri.endsWith("/info/refs");
+      if (UPLOAD_PACK.equals(service)) {
+        return advertisement ? Operation.UPLOAD_PACK_ADVERTISEMENT : Operation.UPLOAD_PACK;
+      } else if (RECEIVE_PACK.equals(service)) {
+        return advertisement ? Operation.RECEIVE_PACK_ADVERTISEMENT : Operation.RECEIVE_PACK;
+      }
+      return Operation.OTHER;
+    }
+
+    /**
+     * @return end of the request
+     */
+    public Instant getTime() {
+      return time;
+    }
+
+    /**
+     * @return HTTP method
+     */
+    public String getMethod() {
+      return method;
+    }
+
+    /**
+     * @return path of the request
+     */
+    public String getUri() {
+      return uri;
+    }
+
+    /**
+     * @return git service, {@code git-upload-pack} or {@code git-receive-pack}
+     */
+    public Optional<String> getService() {
+      return Optional.ofNullable(service);
+    }
+
+    /**
+     * @return HTTP status
+     */
+    public int getStatus() {
+      return status;
+    }
+
+    /**
+     * @return bytes received including the request line and headers
+     */
+    public long getRequestLength() {
+      return requestLength;
+    }
+
+    /**
+     * @return bytes sent including the headers
+     */
+    public long getBytesSent() {
+      return bytesSent;
+    }
+
+    /**
+     * @return time from the first byte of the request to the last byte of the response
+     */
+    public Duration getRequestTime() {
+      return requestTime;
+    }
+
+    /**
+     * @return time of {@code git-http-backend}, empty if the request was not passed to it
+     */
+    public Optional<Duration> getUpstreamResponseTime() {
+      return Optional.ofNullable(upstreamResponseTime);
+    }
+
+    @Override
+    public String toString() {
+      return method + " " + uri + " " + status + " " + requestTime.toMillis() + " ms";
+    }
+  }
+}
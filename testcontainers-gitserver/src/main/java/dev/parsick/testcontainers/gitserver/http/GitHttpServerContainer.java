@@ -1,25 +1,74 @@
 package dev.parsick.testcontainers.gitserver.http;
 
+import static dev.parsick.testcontainers.gitserver.GitRepositoryCommands.REPOSITORIES_PATH;
+
 import com.github.dockerjava.api.command.InspectContainerResponse;
+import dev.parsick.testcontainers.gitserver.GitRepoConfig;
+import dev.parsick.testcontainers.gitserver.GitRepoImport;
+import dev.parsick.testcontainers.gitserver.GitRepositoryCommands;
+import dev.parsick.testcontainers.gitserver.InMemoryStorage;
+import dev.parsick.testcontainers.gitserver.ProvisioningResult;
+import dev.parsick.testcontainers.gitserver.ProvisioningScript;
+import dev.parsick.testcontainers.gitserver.ResettableGitServer;
+import dev.parsick.testcontainers.gitserver.StartupTimeline;
+import dev.parsick.testcontainers.gitserver.StartupTimelineRecorder;
 import java.io.IOException;
 import java.net.URI;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
 import org.testcontainers.containers.GenericContainer;
 import org.testcontainers.containers.wait.strategy.Wait;
-import org.testcontainers.images.builder.ImageFromDockerfile;
-import org.testcontainers.images.builder.dockerfile.DockerfileBuilder;
+import org.testcontainers.images.builder.Transferable;
 import org.testcontainers.utility.DockerImageName;
+import org.testcontainers.utility.MountableFile;
 
 /** Container for a plain Git HTTP Server based on the Docker image "rockstorm/git-server". */
-public class GitHttpServerContainer extends GenericContainer<GitHttpServerContainer> {
-  private final String gitRepoName = "testRepo";
+public class GitHttpServerContainer extends GenericContainer<GitHttpServerContainer>
+    implements ResettableGitServer {
+  private static final String CONFIGURE_GIT_REPOSITORY_STEP = "configure-git-repository";
+  private static final String APPLY_REPO_CONFIG_STEP = "apply-repo-config";
+  private static final String COPY_GIT_REPOSITORY_PHASE = "copy-git-repository";
+  private static final String IMPORT_STAGING_PATH = "/tmp/git-import";
+  private static final String HTPASSWD_PATH = "/etc/nginx/.htpasswd";
+  private static final String AUTH_BASIC_CONF_PATH = "/etc/nginx/auth.d/auth-basic.conf";
+  private static final String CONCURRENCY_MAIN_CONF_PATH = "/etc/nginx/main.d/concurrency.conf";
+  private static final String CONCURRENCY_EVENTS_CONF_PATH =
+      "/etc/nginx/events.d/concurrency.conf";
+  private static final String BUFFERING_CONF_PATH = "/etc/nginx/git.d/buffering.conf";
+  private static final String HTTPS_CONF_PATH = "/etc/nginx/listen.d/https.conf";
+  private static final String TLS_CERTIFICATE_PATH = "/etc/nginx/tls/server.crt";
+  private static final String TLS_KEY_PATH = "/etc/nginx/tls/server.key";
+  private static final int HTTPS_PORT = 443;
+  private String gitRepoName = "testRepo";
+  private final Set<String> additionalGitRepoNames = new LinkedHashSet<>();
+  private String pathToExistingRepo;
+  private GitRepoImport gitRepoImport;
+  private boolean inMemoryStorage;
 
   private static final DockerImageName DEFAULT_DOCKER_IMAGE_NAME =
       DockerImageName.parse("rockstorm/git-server");
 
-  private final BasicAuthenticationCredentials basicAuthenticationCredentials;
+  private final List<BasicAuthenticationCredentials> basicAuthenticationCredentials =
+      new ArrayList<>();
   private HttpProxySetting httpProxySetting;
+  private HttpConcurrencySetting httpConcurrencySetting = new HttpConcurrencySetting();
+  private HttpsSetting httpsSetting;
   private boolean httpProxyEnabled = false;
+  private GitRepoConfig gitRepoConfig = new GitRepoConfig();
+  private final StartupTimelineRecorder startupTimelineRecorder = new StartupTimelineRecorder();
+  private StartupTimeline startupTimeline;
+  private Consumer<StartupTimeline> startupTimelineListener;
 
   /**
    * @param dockerImageName - name of the docker image
@@ -35,11 +84,7 @@ public class GitHttpServerContainer extends GenericContainer<GitHttpServerContai
   public GitHttpServerContainer(
       DockerImageName dockerImageName,
       BasicAuthenticationCredentials basicAuthenticationCredentials) {
-    super(
-        new ImageFromDockerfile()
-            .withFileFromClasspath("http-config/nginx.conf", "http-config/nginx.conf")
-            .withDockerfileFromBuilder(
-                dockerfileBuilder(dockerImageName, basicAuthenticationCredentials)));
+    super(GitHttpServerImage.image(dockerImageName));
     dockerImageName.assertCompatibleWith(DEFAULT_DOCKER_IMAGE_NAME);
 
     if ("2.38".compareTo(dockerImageName.getVersionPart()) <= 0) {
@@ -48,103 +93,524 @@ public class GitHttpServerContainer extends GenericContainer<GitHttpServerContai
     } else {
       withExposedPorts(80);
     }
-    this.basicAuthenticationCredentials = basicAuthenticationCredentials;
+    if (basicAuthenticationCredentials != null) {
+      withBasicAuthCredentials(basicAuthenticationCredentials);
+    }
   }
 
-  private static Consumer<DockerfileBuilder> dockerfileBuilder(
-      DockerImageName dockerImageName,
-      BasicAuthenticationCredentials basicAuthenticationCredentials) {
-    return builder -> {
-      var tempBuilder =
-          builder
-              .from(dockerImageName.toString())
-              .run(
-                  "apk add --update nginx && "
-                      + checkUpdateGit(dockerImageName)
-                      + "apk add --update fcgiwrap && "
-                      + "apk add --update spawn-fcgi && "
-                      + checkIfOpensslIsNeeded(basicAuthenticationCredentials)
-                      + "rm -rf /var/cache/apk/*")
-              .copy("./http-config/nginx.conf", "/etc/nginx/nginx.conf");
-
-      if (basicAuthenticationCredentials != null) {
-        tempBuilder.run(
-            "sh",
-            "-c",
-            "echo \""
-                + basicAuthenticationCredentials.getUsername()
-                + ":$(openssl passwd -apr1 "
-                + basicAuthenticationCredentials.getPassword()
-                + ")\" > /etc/nginx/.htpasswd");
-        tempBuilder.run("sh", "-c", "sed -i -e 's/#auth_basic/auth_basic/g' /etc/nginx/nginx.conf");
-      }
+  /**
+   * Enable basic authentication for the given users.
+   *
+   * <p>The htpasswd file is copied into the container at start, so every set of users shares the
+   * same image.
+   *
+   * @param basicAuthenticationCredentials - credentials of the users
+   * @return instance of the git server container
+   */
+  public GitHttpServerContainer withBasicAuthCredentials(
+      BasicAuthenticationCredentials... basicAuthenticationCredentials) {
+    for (BasicAuthenticationCredentials credentials : basicAuthenticationCredentials) {
+      Htpasswd.checkUsername(credentials);
+    }
+    this.basicAuthenticationCredentials.addAll(Arrays.asList(basicAuthenticationCredentials));
+    return this;
+  }
 
-      tempBuilder
-          .cmd(
-              "spawn-fcgi -s /run/fcgi.sock -- /usr/bin/fcgiwrap -f && "
-                  + "    nginx -g \"daemon off;\"")
-          .build();
-    };
+  /**
+   * Return the HTTP URI for git repo.
+   *
+   * @return HTTP URI
+   */
+  public URI getGitRepoURIAsHttp() {
+    return getGitRepoURIAsHttp(gitRepoName);
   }
 
-  private static String checkIfOpensslIsNeeded(
-      BasicAuthenticationCredentials basicAuthenticationCredentials) {
-    final String enableOpenssl;
-    if (basicAuthenticationCredentials != null) {
-      enableOpenssl = "apk add --update openssl && ";
-    } else {
-      enableOpenssl = "";
+  /**
+   * Return the HTTP URI for the git repo with the given name.
+   *
+   * @param gitRepoName - name of the default repository or of a repository added with {@code
+   *     withGitRepos}
+   * @return HTTP URI
+   */
+  public URI getGitRepoURIAsHttp(String gitRepoName) {
+    return URI.create(
+        "http://"
+            + getHost()
+            + ":"
+            + getMappedPort(80)
+            + "/git"
+            + getGitRepoPath(gitRepoName).substring(REPOSITORIES_PATH.length()));
+  }
+
+  /**
+   * Return the HTTPS URI for git repo.
+   *
+   * @return HTTPS URI
+   */
+  public URI getGitRepoURIAsHttps() {
+    return getGitRepoURIAsHttps(gitRepoName);
+  }
+
+  /**
+   * Return the HTTPS URI for the git repo with the given name.
+   *
+   * @param gitRepoName - name of the default repository or of a repository added with {@code
+   *     withGitRepos}
+   * @return HTTPS URI
+   */
+  public URI getGitRepoURIAsHttps(String gitRepoName) {
+    if (httpsSetting == null) {
+      throw new IllegalStateException("HTTPS is not enabled, see withHttps()");
     }
-    return enableOpenssl;
+    return URI.create(
+        "https://"
+            + getHost()
+            + ":"
+            + getMappedPort(HTTPS_PORT)
+            + "/git"
+            + getGitRepoPath(gitRepoName).substring(REPOSITORIES_PATH.length()));
   }
 
-  private static String checkUpdateGit(DockerImageName dockerImageName) {
-    final String updateGit;
-    if ("2.36".compareTo(dockerImageName.getVersionPart()) == 0) {
-      updateGit = "apk add --update git=2.36.6-r0 git-daemon=2.36.6-r0 && ";
-    } else if ("2.34".compareTo(dockerImageName.getVersionPart()) == 0) {
-      updateGit = "apk add --update git=2.34.8-r0 git-daemon=2.34.8-r0 && ";
-    } else {
-      updateGit = "apk add --update git git-daemon && ";
+  /**
+   * Override the default git repository name.
+   *
+   * <p>Default name is "testRepo"
+   *
+   * @param gitRepoName - name of the git repository that is created by default
+   * @return instance of the git server container
+   */
+  public GitHttpServerContainer withGitRepo(String gitRepoName) {
+    this.gitRepoName = GitRepositoryCommands.checkRepoName(gitRepoName);
+    return this;
+  }
+
+  /**
+   * Create additional git repositories besides the default one.
+   *
+   * <p>All repositories are created and enabled for push in one batched step, so that the startup
+   * time stays nearly the same for hundreds of repositories.
+   *
+   * @param gitRepoNames - names of the additional git repositories
+   * @return instance of the git server container
+   */
+  public GitHttpServerContainer withGitRepos(String... gitRepoNames) {
+    for (String name : gitRepoNames) {
+      additionalGitRepoNames.add(GitRepositoryCommands.checkRepoName(name));
     }
-    return updateGit;
+    return this;
   }
 
   /**
-   * Return the HTTP URI for git repo.
+   * Copy an existing git repository to the container as the default repository.
    *
-   * @return HTTP URI
+   * <p>The git repository is copied to the container and the git repository is initialized as bare
+   * repository.
+   *
+   * @param pathToExistingRepo - path to the existing git repository. The path is relative to the
+   *     project root.
+   * @return instance of the git server container
    */
-  public URI getGitRepoURIAsHttp() {
-    return URI.create("http://" + getHost() + ":" + getMappedPort(80) + "/git/" + gitRepoName);
+  public GitHttpServerContainer withCopyExistingGitRepoToContainer(String pathToExistingRepo) {
+    this.pathToExistingRepo = pathToExistingRepo;
+    this.gitRepoImport = null;
+    return this;
+  }
+
+  /**
+   * Import an existing git repository to the container as the default repository.
+   *
+   * <p>Only the objects reachable from the selected refs are packed into a single packfile on the
+   * host. The packfile is streamed into the container and unpacked there into the bare repository.
+   * This is faster than copying the whole {@code .git} directory or pushing the repository over
+   * HTTP after the start.
+   *
+   * @param gitRepoImport - import of the existing git repository
+   * @return instance of the git server container
+   */
+  public GitHttpServerContainer withCopyExistingGitRepoToContainer(GitRepoImport gitRepoImport) {
+    this.gitRepoImport = gitRepoImport;
+    this.pathToExistingRepo = null;
+    return this;
+  }
+
+  /**
+   * Return the names of all git repositories, the default repository first.
+   *
+   * @return names of the git repositories
+   */
+  public List<String> getGitRepoNames() {
+    List<String> gitRepoNames = new ArrayList<>();
+    gitRepoNames.add(gitRepoName);
+    additionalGitRepoNames.stream()
+        .filter(name -> !name.equals(gitRepoName))
+        .forEach(gitRepoNames::add);
+    return gitRepoNames;
+  }
+
+  /**
+   * Return the path of the git repository with the given name inside the container.
+   *
+   * @param gitRepoName - name of the default repository or of a repository added with {@code
+   *     withGitRepos}
+   * @return path of the git repository
+   */
+  public String getGitRepoPath(String gitRepoName) {
+    if (!getGitRepoNames().contains(gitRepoName)) {
+      throw new IllegalArgumentException("Unknown git repo name: " + gitRepoName);
+    }
+    return String.format("%s/%s.git", REPOSITORIES_PATH, gitRepoName);
+  }
+
+  @Override
+  protected void configure() {
+    startupTimelineRecorder.begin();
+    super.configure();
+    withEnv(
+        GitHttpServerImage.FCGIWRAP_CHILDREN_ENV,
+        String.valueOf(httpConcurrencySetting.getFcgiwrapChildren()));
+    startupTimelineRecorder.lap(StartupTimeline.CONFIGURE_PHASE);
+    // builds the image from the Dockerfile, unless it was built before
+    getDockerImageName();
+    startupTimelineRecorder.lap(StartupTimeline.IMAGE_PHASE);
+  }
+
+  @Override
+  protected void containerIsCreated(String containerId) {
+    super.containerIsCreated(containerId);
+    configureHttpConcurrency();
+    configureBasicAuthentication();
+    configureHttps();
+    startupTimelineRecorder.lap(StartupTimeline.CREATE_PHASE);
+  }
+
+  private void configureHttpConcurrency() {
+    copyFileToContainer(
+        Transferable.of(httpConcurrencySetting.renderMain()), CONCURRENCY_MAIN_CONF_PATH);
+    copyFileToContainer(
+        Transferable.of(httpConcurrencySetting.renderEvents()), CONCURRENCY_EVENTS_CONF_PATH);
+    copyFileToContainer(
+        Transferable.of(httpConcurrencySetting.renderGitLocation()), BUFFERING_CONF_PATH);
+  }
+
+  private void configureBasicAuthentication() {
+    if (basicAuthenticationCredentials.isEmpty()) {
+      return;
+    }
+    // nginx reads both files when it starts, so they must exist before the container starts
+    copyFileToContainer(
+        Transferable.of(Htpasswd.render(basicAuthenticationCredentials)), HTPASSWD_PATH);
+    copyFileToContainer(
+        Transferable.of(
+            "auth_basic \"Restricted\";\nauth_basic_user_file " + HTPASSWD_PATH + ";\n"),
+        AUTH_BASIC_CONF_PATH);
+  }
+
+  private void configureHttps() {
+    if (httpsSetting == null) {
+      return;
+    }
+    // the host is known before the start, so the certificate matches the URI of the container
+    List<String> hostnames =
+        new ArrayList<>(new LinkedHashSet<>(List.of(getHost(), "localhost", "127.0.0.1")));
+    CertificateAuthority.ServerCertificate serverCertificate =
+        CertificateAuthority.cached().issueServerCertificate(hostnames);
+    copyFileToContainer(
+        Transferable.of(serverCertificate.certificateChainPem()), TLS_CERTIFICATE_PATH);
+    copyFileToContainer(Transferable.of(serverCertificate.privateKeyPem(), 0600), TLS_KEY_PATH);
+    copyFileToContainer(
+        Transferable.of(httpsSetting.renderServer(TLS_CERTIFICATE_PATH, TLS_KEY_PATH)),
+        HTTPS_CONF_PATH);
+  }
+
+  @Override
+  protected void containerIsStarting(InspectContainerResponse containerInfo) {
+    super.containerIsStarting(containerInfo);
+    startupTimelineRecorder.lap(StartupTimeline.START_PHASE);
+  }
+
+  @Override
+  protected void waitUntilContainerStarted() {
+    super.waitUntilContainerStarted();
+    startupTimelineRecorder.lap(StartupTimeline.WAIT_PHASE);
   }
 
   @Override
   protected void containerIsStarted(InspectContainerResponse containerInfo) {
     super.containerIsStarted(containerInfo);
+    if (pathToExistingRepo != null || gitRepoImport != null) {
+      copyExistingGitRepository();
+      startupTimelineRecorder.lap(COPY_GIT_REPOSITORY_PHASE);
+    }
     configureGitRepository();
+    startupTimeline = startupTimelineRecorder.finish();
+    logger().debug("Startup timeline of {}: {}", getDockerImageName(), startupTimeline);
+    if (startupTimelineListener != null) {
+      startupTimelineListener.accept(startupTimeline);
+    }
+  }
+
+  private void copyExistingGitRepository() {
+    try {
+      if (pathToExistingRepo != null) {
+        copyFileToContainer(
+            MountableFile.forHostPath(pathToExistingRepo + "/.git"),
+            inMemoryStorage ? IMPORT_STAGING_PATH : getGitRepoPath(gitRepoName));
+      } else if (gitRepoImport != null) {
+        gitRepoImport.copyToContainer(this, IMPORT_STAGING_PATH);
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("Copying existing Git repository failed", e);
+    }
   }
 
   private void configureGitRepository() {
+    List<String> gitRepoPaths =
+        getGitRepoNames().stream().map(this::getGitRepoPath).collect(Collectors.toList());
+    String defaultGitRepoPath = getGitRepoPath(gitRepoName);
+    List<String> newRepoPaths = new ArrayList<>(gitRepoPaths);
+    StringBuilder command = new StringBuilder();
+    if (pathToExistingRepo != null) {
+      if (inMemoryStorage) {
+        command
+            .append(
+                GitRepositoryCommands.moveStagedRepository(
+                    IMPORT_STAGING_PATH, defaultGitRepoPath))
+            .append('\n');
+      }
+      command
+          .append("git config --file ")
+          .append(ProvisioningScript.quote(defaultGitRepoPath))
+          .append("/config --bool core.bare true\n");
+      newRepoPaths.remove(defaultGitRepoPath);
+    } else if (gitRepoImport != null) {
+      command
+          .append(gitRepoImport.importCommand(IMPORT_STAGING_PATH, defaultGitRepoPath))
+          .append('\n');
+      newRepoPaths.remove(defaultGitRepoPath);
+    }
+    // receive-pack is enabled for all repositories with shell builtins in the same step
+    String enableReceivePack = new GitRepoConfig().with("http.receivepack", "true").render();
+    command
+        .append(GitRepositoryCommands.initBareRepositories(newRepoPaths))
+        .append('\n')
+        .append(GitRepositoryCommands.appendConfig(gitRepoPaths, enableReceivePack));
+    ProvisioningScript script =
+        new ProvisioningScript().step(CONFIGURE_GIT_REPOSITORY_STEP, command.toString());
+    if (!gitRepoConfig.isEmpty()) {
+      script.step(
+          APPLY_REPO_CONFIG_STEP,
+          GitRepositoryCommands.appendConfig(gitRepoPaths, gitRepoConfig.render()));
+    }
+    ProvisioningResult result = script.executeOrFail(this);
+    startupTimelineRecorder.lap(StartupTimeline.PROVISIONING_PHASE, result);
+  }
+
+  /**
+   * Apply server side git configuration to all git repositories.
+   *
+   * @param gitRepoConfig - git configuration, e.g. pack and upload-pack settings
+   * @return instance of the git server container
+   */
+  public GitHttpServerContainer withRepoConfig(GitRepoConfig gitRepoConfig) {
+    this.gitRepoConfig = gitRepoConfig;
+    return this;
+  }
+
+  /**
+   * Set the number of nginx workers and fcgiwrap processes and the buffering of git requests.
+   *
+   * <p>By default, one nginx worker and one fcgiwrap process serve all requests one after the
+   * other. For parallel fetches, raise the number of fcgiwrap children to the number of parallel
+   * clients.
+   *
+   * @param httpConcurrencySetting - concurrency and buffering setting
+   * @return instance of the git server container
+   */
+  public GitHttpServerContainer withHttpConcurrencySetting(
+      HttpConcurrencySetting httpConcurrencySetting) {
+    this.httpConcurrencySetting = httpConcurrencySetting;
+    return this;
+  }
+
+  /**
+   * @return concurrency and buffering setting of nginx and fcgiwrap
+   */
+  public HttpConcurrencySetting getHttpConcurrencySetting() {
+    return httpConcurrencySetting;
+  }
+
+  /**
+   * Enable the TLS listener with the default setting, see {@link #withHttps(HttpsSetting)}.
+   *
+   * @return instance of the git server container
+   */
+  public GitHttpServerContainer withHttps() {
+    return withHttps(new HttpsSetting());
+  }
+
+  /**
+   * Enable the TLS listener besides the plain HTTP listener.
+   *
+   * <p>The server certificate is issued for the host of the container at each start by a
+   * certificate authority that is generated once per JVM. Clients trust it with {@link
+   * #getSslContext()}, {@link #getTrustStore()} or, e.g. for the git command line, with {@link
+   * #getCaCertificatePem()} as {@code http.sslCAInfo}.
+   *
+   * @param httpsSetting - TLS protocols and session resumption
+   * @return instance of the git server container
+   */
+  public GitHttpServerContainer withHttps(HttpsSetting httpsSetting) {
+    this.httpsSetting = httpsSetting;
+    addExposedPorts(HTTPS_PORT);
+    return this;
+  }
+
+  /**
+   * @return TLS setting or null if HTTPS is disabled
+   */
+  public HttpsSetting getHttpsSetting() {
+    return httpsSetting;
+  }
+
+  /**
+   * @return certificate of the certificate authority that issues the server certificates
+   */
+  public X509Certificate getCaCertificate() {
+    return CertificateAuthority.cached().getCertificate();
+  }
+
+  /**
+   * @return certificate of the certificate authority in PEM format
+   */
+  public String getCaCertificatePem() {
+    return CertificateAuthority.toPem(getCaCertificate());
+  }
+
+  /**
+   * Return a trust store that contains only the certificate of the certificate authority.
+   *
+   * @return trust store of the default key store type
+   */
+  public KeyStore getTrustStore() {
+    try {
+      KeyStore trustStore = KeyStore.getInstance(KeyStore.getDefaultType());
+      trustStore.load(null, null);
+      trustStore.setCertificateEntry("testcontainers-git-ca", getCaCertificate());
+      return trustStore;
+    } catch (GeneralSecurityException | IOException e) {
+      throw new RuntimeException("Creating the trust store failed", e);
+    }
+  }
+
+  /**
+   * Return an SSL context that trusts the server certificates of the container, e.g. for {@code
+   * java.net.http.HttpClient}.
+   *
+   * @return SSL context
+   */
+  public SSLContext getSslContext() {
     try {
-      String gitRepoPath = String.format("/srv/git/%s.git", gitRepoName);
-      execInContainer("mkdir", "-p", gitRepoPath);
-      execInContainer("git", "init", "--bare", gitRepoPath);
-      execInContainer("sh", "-c", "echo '[http]' >> " + gitRepoPath + "/config");
-      execInContainer(
-          "sh", "-c", "echo '        receivepack = true' >> " + gitRepoPath + "/config");
-    } catch (IOException | InterruptedException e) {
-      throw new RuntimeException("Configure Git repository failed", e);
+      TrustManagerFactory trustManagerFactory =
+          TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+      trustManagerFactory.init(getTrustStore());
+      SSLContext sslContext = SSLContext.getInstance("TLS");
+      sslContext.init(null, trustManagerFactory.getTrustManagers(), null);
+      return sslContext;
+    } catch (GeneralSecurityException e) {
+      throw new RuntimeException("Creating the SSL context failed", e);
     }
   }
 
+  /**
+   * Read the access log of nginx with the latency of each request.
+   *
+   * @return access log since the start or the last {@link #clearAccessLog()}
+   */
+  public GitHttpAccessLog getAccessLog() {
+    return copyFileFromContainer(GitHttpAccessLog.PATH, GitHttpAccessLog::read);
+  }
+
+  /**
+   * Pass each entry of the access log of nginx to the given consumer while the log is copied from
+   * the container, e.g. for long performance tests with many requests.
+   *
+   * @param consumer - consumer of the entries
+   */
+  public void streamAccessLog(Consumer<GitHttpAccessLog.Entry> consumer) {
+    copyFileFromContainer(
+        GitHttpAccessLog.PATH,
+        accessLog -> {
+          GitHttpAccessLog.stream(accessLog, consumer);
+          return null;
+        });
+  }
+
+  /** Remove all entries from the access log of nginx, e.g. after the warm-up of a benchmark. */
+  public void clearAccessLog() {
+    // nginx appends to the log, so it keeps writing to the truncated file
+    new ProvisioningScript()
+        .step("clear-access-log", ": > " + ProvisioningScript.quote(GitHttpAccessLog.PATH))
+        .executeOrFail(this);
+  }
+
+  /**
+   * Pass the startup timeline to the given listener after each start, e.g. to publish the phase
+   * durations as metrics.
+   *
+   * <p>The timeline is also logged at debug level.
+   *
+   * @param startupTimelineListener - listener that receives the timeline of each start
+   * @return instance of the git server container
+   */
+  public GitHttpServerContainer withStartupTimelineListener(
+      Consumer<StartupTimeline> startupTimelineListener) {
+    this.startupTimelineListener = startupTimelineListener;
+    return this;
+  }
+
+  /**
+   * Return the durations of the phases of the last start: configuration, image build, creation,
+   * start and wait strategy of the container and the provisioning with each of its steps.
+   *
+   * @return startup timeline or null if the container is not started yet
+   */
+  public StartupTimeline getStartupTimeline() {
+    return startupTimeline;
+  }
+
+  /**
+   * Store the git repositories in memory instead of the file system of the container.
+   *
+   * <p>{@code /srv/git} is mounted as tmpfs, so that push-heavy tests do not depend on the disk of
+   * the docker host. The repositories are lost when the container stops.
+   *
+   * @param sizeLimit - maximum size of the repositories with an optional unit {@code k}, {@code
+   *     m} or {@code g}, e.g. {@code 512m}
+   * @return instance of the git server container
+   */
+  public GitHttpServerContainer withInMemoryStorage(String sizeLimit) {
+    withTmpFs(InMemoryStorage.tmpfs(REPOSITORIES_PATH, sizeLimit));
+    this.inMemoryStorage = true;
+    return this;
+  }
+
   /**
    * Return credentials for basic authentication
    *
-   * @return credentials for basic authentication
+   * @return credentials of the first user for basic authentication or null if basic
+   *     authentication is disabled
    */
   public BasicAuthenticationCredentials getBasicAuthCredentials() {
-    return basicAuthenticationCredentials;
+    return basicAuthenticationCredentials.isEmpty() ? null : basicAuthenticationCredentials.get(0);
+  }
+
+  /**
+   * Return credentials of all users for basic authentication
+   *
+   * @return credentials of all users, empty if basic authentication is disabled
+   */
+  public List<BasicAuthenticationCredentials> getAllBasicAuthCredentials() {
+    return Collections.unmodifiableList(basicAuthenticationCredentials);
   }
 
   public boolean hasHttpProxy() {
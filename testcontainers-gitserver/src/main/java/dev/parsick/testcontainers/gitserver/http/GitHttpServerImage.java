@@ -0,0 +1,153 @@
+package dev.parsick.testcontainers.gitserver.http;
+
+import dev.parsick.testcontainers.gitserver.ProvisionedImageCache;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import org.testcontainers.images.builder.ImageFromDockerfile;
+import org.testcontainers.images.builder.dockerfile.DockerfileBuilder;
+import org.testcontainers.images.builder.dockerfile.statement.SingleArgumentStatement;
+import org.testcontainers.utility.DockerImageName;
+import org.testcontainers.utility.LazyFuture;
+
+/**
+ * Docker image of the {@link GitHttpServerContainer}: the git server image with nginx and
+ * fcgiwrap.
+ *
+ * <p>The image is tagged with a hash of its Dockerfile and its nginx configuration and is kept
+ * after the JVM exits. Every container with the same configuration, also in later test runs and
+ * in other modules, reuses the local image instead of installing the packages again.
+ *
+ * <p>The tag does not change when the packages that {@code apk add} installs get updates, or when
+ * the tag of the git server image is moved to a new image. The image keeps the versions of its
+ * build until it is removed, e.g. with {@code docker image rm}.
+ *
+ * <p>On machines without access to the Alpine package mirrors, the image can be built once with
+ * {@link #prebuild(DockerImageName, String...)} from a local package mirror, or transferred with
+ * {@code docker save} and {@code docker load}.
+ */
+public final class GitHttpServerImage {
+
+  /** Repository of the images. */
+  public static final String IMAGE_REPOSITORY = "testcontainers-git/http";
+
+  private static final String NGINX_CONF = "http-config/nginx.conf";
+  private static final String APK_REPOSITORIES_ARG = "APK_REPOSITORIES";
+
+  /** Environment variable with the number of fcgiwrap processes, read when the container starts. */
+  static final String FCGIWRAP_CHILDREN_ENV = "FCGIWRAP_CHILDREN";
+
+  private GitHttpServerImage() {}
+
+  /**
+   * Return the name of the image for the given git server image.
+   *
+   * @param baseImage - git server image, e.g. {@code rockstorm/git-server:2.52}
+   * @return image name with the content hash as tag
+   */
+  public static String imageName(DockerImageName baseImage) {
+    String dockerfile = dockerfile(baseImage);
+    return ProvisionedImageCache.imageName(IMAGE_REPOSITORY, List.of(dockerfile, nginxConf()));
+  }
+
+  /**
+   * Build the image for the given git server image, even if it exists already.
+   *
+   * @param baseImage - git server image, e.g. {@code rockstorm/git-server:2.52}
+   * @param apkRepositories - URLs of Alpine package repositories that replace the default
+   *     repositories during the build, e.g. a local mirror; none to use the default repositories
+   * @return name of the built image
+   */
+  public static String prebuild(DockerImageName baseImage, String... apkRepositories) {
+    ImageFromDockerfile image = imageFromDockerfile(baseImage);
+    if (apkRepositories.length > 0) {
+      // a build argument is not part of the Dockerfile, so the image gets the same tag
+      image.withBuildArg(APK_REPOSITORIES_ARG, String.join(" ", apkRepositories));
+    }
+    return build(image);
+  }
+
+  /**
+   * Return the image for a container. The image is built on first use, unless it exists locally.
+   *
+   * @param baseImage - git server image
+   * @return name of the image, resolved on first use
+   */
+  static Future<String> image(DockerImageName baseImage) {
+    String imageName = imageName(baseImage);
+    return new LazyFuture<>() {
+      @Override
+      protected String resolve() {
+        if (ProvisionedImageCache.findImage(imageName).isPresent()) {
+          return imageName;
+        }
+        return build(imageFromDockerfile(baseImage));
+      }
+    };
+  }
+
+  private static ImageFromDockerfile imageFromDockerfile(DockerImageName baseImage) {
+    return new ImageFromDockerfile(imageName(baseImage), false)
+        .withFileFromString("Dockerfile", dockerfile(baseImage))
+        .withFileFromClasspath(NGINX_CONF, NGINX_CONF);
+  }
+
+  private static String build(Future<String> image) {
+    try {
+      return image.get();
+    } catch (ExecutionException e) {
+      throw new RuntimeException("Building the git http server image failed", e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Building the git http server image was interrupted", e);
+    }
+  }
+
+  private static String nginxConf() {
+    ClassLoader classLoader = GitHttpServerImage.class.getClassLoader();
+    try (InputStream nginxConf = classLoader.getResourceAsStream(NGINX_CONF)) {
+      return new String(nginxConf.readAllBytes(), StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new RuntimeException("Reading " + NGINX_CONF + " failed", e);
+    }
+  }
+
+  private static String dockerfile(DockerImageName dockerImageName) {
+    return new DockerfileBuilder()
+        .from(dockerImageName.toString())
+        .withStatement(new SingleArgumentStatement("ARG", APK_REPOSITORIES_ARG))
+        .run(
+            "if [ -n \"$"
+                + APK_REPOSITORIES_ARG
+                + "\" ]; then printf '%s\\n' $"
+                + APK_REPOSITORIES_ARG
+                + " > /etc/apk/repositories; fi && "
+                + "apk add --update nginx && "
+                + checkUpdateGit(dockerImageName)
+                + "apk add --update fcgiwrap && "
+                + "apk add --update spawn-fcgi && "
+                + "rm -rf /var/cache/apk/*")
+        .copy("./" + NGINX_CONF, "/etc/nginx/nginx.conf")
+        .cmd(
+            "spawn-fcgi -s /run/fcgi.sock -- /usr/bin/fcgiwrap -f -c ${"
+                + FCGIWRAP_CHILDREN_ENV
+                + ":-1} && "
+                + "    nginx -g \"daemon off;\"")
+        .build();
+  }
+
+  private static String checkUpdateGit(DockerImageName dockerImageName) {
+    final String updateGit;
+    if ("2.36".compareTo(dockerImageName.getVersionPart()) == 0) {
+      updateGit = "apk add --update git=2.36.6-r0 git-daemon=2.36.6-r0 && ";
+    } else if ("2.34".compareTo(dockerImageName.getVersionPart()) == 0) {
+      updateGit = "apk add --update git=2.34.8-r0 git-daemon=2.34.8-r0 && ";
+    } else {
+      updateGit = "apk add --update git git-daemon && ";
+    }
+    return updateGit;
+  }
+}
@@ -0,0 +1,62 @@
+package dev.parsick.testcontainers.gitserver.http;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Renders the htpasswd file of nginx in the JVM, so that no tool is needed inside the image.
+ *
+ * <p>The passwords are hashed with salted SHA-1 ({@code {SSHA}}), which nginx supports on every
+ * platform.
+ */
+final class Htpasswd {
+
+  private static final int SALT_LENGTH = 8;
+  private static final SecureRandom RANDOM = new SecureRandom();
+
+  private Htpasswd() {}
+
+  /**
+   * Check that the username can be written to a htpasswd file.
+   *
+   * @param credentials - credentials for basic authentication
+   */
+  static void checkUsername(BasicAuthenticationCredentials credentials) {
+    String username = credentials.getUsername();
+    if (username == null || username.isEmpty() || username.matches("(?s).*[:\\r\\n].*")) {
+      throw new IllegalArgumentException("Invalid username for basic authentication: " + username);
+    }
+  }
+
+  /**
+   * @param credentials - credentials of all users
+   * @return content of the htpasswd file with one line per user
+   */
+  static String render(List<BasicAuthenticationCredentials> credentials) {
+    return credentials.stream()
+        .map(user -> user.getUsername() + ":" + hash(user.getPassword()) + "\n")
+        .collect(Collectors.joining());
+  }
+
+  private static String hash(String password) {
+    byte[] salt = new byte[SALT_LENGTH];
+    RANDOM.nextBytes(salt);
+    try {
+      MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+      sha1.update(password.getBytes(StandardCharsets.UTF_8));
+      sha1.update(salt);
+      byte[] digest = sha1.digest();
+      byte[] digestWithSalt = new byte[digest.length + salt.length];
+      System.arraycopy(digest, 0, digestWithSalt, 0, digest.length);
+      System.arraycopy(salt, 0, digestWithSalt, digest.length, salt.length);
+      return "{SSHA}" + Base64.getEncoder().encodeToString(digestWithSalt);
+    } catch (NoSuchAlgorithmException e) {
+      throw new RuntimeException("Hashing the password for basic authentication failed", e);
+    }
+  }
+}
@@ -0,0 +1,205 @@
+package dev.parsick.testcontainers.gitserver.http;
+
+import java.time.Duration;
+
+/**
+ * Concurrency and buffering of the nginx and fcgiwrap backend of the {@link
+ * GitHttpServerContainer}.
+ *
+ * <p>Every git request runs {@code git-http-backend} in a fcgiwrap process, so the number of
+ * fcgiwrap children limits the number of parallel fetches and pushes. The defaults match a single
+ * nginx worker and a single fcgiwrap process, which serializes all requests.
+ */
+public class HttpConcurrencySetting {
+
+  private static final String SIZE_PATTERN = "[1-9][0-9]*[km]?";
+
+  private int workerProcesses = 1;
+  private int workerConnections = 1024;
+  private int fcgiwrapChildren = 1;
+  private boolean responseBuffering = true;
+  private String responseBufferSize;
+  private int responseBufferCount;
+  private boolean requestBuffering = true;
+  private Duration keepAliveTimeout;
+  private int keepAliveRequests;
+
+  /**
+   * Set the number of nginx worker processes ({@code worker_processes}).
+   *
+   * @param workerProcesses - number of worker processes
+   * @return this setting
+   */
+  public HttpConcurrencySetting withWorkerProcesses(int workerProcesses) {
+    this.workerProcesses = checkPositive("worker processes", workerProcesses);
+    return this;
+  }
+
+  /**
+   * Set the maximum number of connections of each nginx worker ({@code worker_connections}).
+   *
+   * @param workerConnections - number of connections per worker
+   * @return this setting
+   */
+  public HttpConcurrencySetting withWorkerConnections(int workerConnections) {
+    this.workerConnections = checkPositive("worker connections", workerConnections);
+    return this;
+  }
+
+  /**
+   * Set the number of fcgiwrap processes that run {@code git-http-backend} in parallel ({@code
+   * fcgiwrap -c}).
+   *
+   * @param fcgiwrapChildren - number of fcgiwrap processes
+   * @return this setting
+   */
+  public HttpConcurrencySetting withFcgiwrapChildren(int fcgiwrapChildren) {
+    this.fcgiwrapChildren = checkPositive("fcgiwrap children", fcgiwrapChildren);
+    return this;
+  }
+
+  /**
+   * Buffer the responses of {@code git-http-backend} in nginx ({@code fastcgi_buffering}).
+   *
+   * <p>Without buffering, large packs are streamed to the client while they are generated, but a
+   * slow client keeps the fcgiwrap process busy.
+   *
+   * @param responseBuffering - whether responses are buffered
+   * @return this setting
+   */
+  public HttpConcurrencySetting withResponseBuffering(boolean responseBuffering) {
+    this.responseBuffering = responseBuffering;
+    return this;
+  }
+
+  /**
+   * Set the memory buffers for the responses of {@code git-http-backend} ({@code
+   * fastcgi_buffer_size} and {@code fastcgi_buffers}), so that large packs are not written to
+   * temporary files.
+   *
+   * <p>nginx keeps up to one buffer busy sending to the client and needs it to be smaller than all
+   * buffers but one, so at least three buffers are required.
+   *
+   * @param count - number of buffers per request, at least 3
+   * @param size - size of each buffer with an optional unit {@code k} or {@code m}, e.g. {@code
+   *     1m}
+   * @return this setting
+   */
+  public HttpConcurrencySetting withResponseBuffers(int count, String size) {
+    if (count < 3) {
+      throw new IllegalArgumentException("Number of response buffers must be at least 3: " + count);
+    }
+    this.responseBufferCount = count;
+    this.responseBufferSize = checkSize(size);
+    return this;
+  }
+
+  /**
+   * Buffer the request bodies, e.g. pushed packs, before they are passed to {@code
+   * git-http-backend} ({@code fastcgi_request_buffering}).
+   *
+   * @param requestBuffering - whether request bodies are buffered
+   * @return this setting
+   */
+  public HttpConcurrencySetting withRequestBuffering(boolean requestBuffering) {
+    this.requestBuffering = requestBuffering;
+    return this;
+  }
+
+  /**
+   * Set how long an idle client connection is kept open and how many requests it serves ({@code
+   * keepalive_timeout} and {@code keepalive_requests}), for HTTP and HTTPS.
+   *
+   * <p>A git fetch sends at least two requests, so without keep-alive every request pays the TCP
+   * and, with HTTPS, the TLS handshake. By default nginx keeps connections open for 75 seconds.
+   *
+   * @param timeout - idle timeout in whole seconds, zero disables keep-alive
+   * @param requests - maximum number of requests per connection
+   * @return this setting
+   */
+  public HttpConcurrencySetting withKeepAlive(Duration timeout, int requests) {
+    if (timeout.isNegative()) {
+      throw new IllegalArgumentException("Keep-alive timeout must not be negative: " + timeout);
+    }
+    this.keepAliveTimeout = timeout;
+    this.keepAliveRequests = checkPositive("keep-alive requests", requests);
+    return this;
+  }
+
+  /**
+   * @return number of nginx worker processes
+   */
+  public int getWorkerProcesses() {
+    return workerProcesses;
+  }
+
+  /**
+   * @return number of connections per nginx worker
+   */
+  public int getWorkerConnections() {
+    return workerConnections;
+  }
+
+  /**
+   * @return number of fcgiwrap processes
+   */
+  public int getFcgiwrapChildren() {
+    return fcgiwrapChildren;
+  }
+
+  /**
+   * @return configuration for the main context of nginx
+   */
+  String renderMain() {
+    return "worker_processes " + workerProcesses + ";\n";
+  }
+
+  /**
+   * @return configuration for the events context of nginx
+   */
+  String renderEvents() {
+    return "worker_connections " + workerConnections + ";\n";
+  }
+
+  /**
+   * @return configuration for the location of the git repositories
+   */
+  String renderGitLocation() {
+    StringBuilder conf = new StringBuilder();
+    conf.append("fastcgi_buffering ").append(onOff(responseBuffering)).append(";\n");
+    conf.append("fastcgi_request_buffering ").append(onOff(requestBuffering)).append(";\n");
+    if (responseBufferSize != null) {
+      conf.append("fastcgi_buffer_size ").append(responseBufferSize).append(";\n");
+      conf.append("fastcgi_buffers ")
+          .append(responseBufferCount)
+          .append(' ')
+          .append(responseBufferSize)
+          .append(";\n");
+      // nginx requires the busy buffers to be smaller than all buffers but one, hence count >= 3
+      conf.append("fastcgi_busy_buffers_size ").append(responseBufferSize).append(";\n");
+    }
+    if (keepAliveTimeout != null) {
+      conf.append("keepalive_timeout ").append(keepAliveTimeout.toSeconds()).append("s;\n");
+      conf.append("keepalive_requests ").append(keepAliveRequests).append(";\n");
+    }
+    return conf.toString();
+  }
+
+  private static String onOff(boolean enabled) {
+    return enabled ? "on" : "off";
+  }
+
+  private static int checkPositive(String name, int value) {
+    if (value < 1) {
+      throw new IllegalArgumentException("Number of " + name + " must be positive: " + value);
+    }
+    return value;
+  }
+
+  private static String checkSize(String size) {
+    if (size == null || !size.matches(SIZE_PATTERN)) {
+      throw new IllegalArgumentException("Invalid buffer size: " + size);
+    }
+    return size;
+  }
+}
@@ -0,0 +1,104 @@
+package dev.parsick.testcontainers.gitserver.http;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * TLS listener of the {@link GitHttpServerContainer}.
+ *
+ * <p>The server certificate is issued at container start by a certificate authority that is
+ * generated in the JVM, so no network and no openssl are needed. By default TLS 1.2 and 1.3 are
+ * enabled and sessions can be resumed with the session cache and with session tickets, like most
+ * production servers do. Disable both to measure a full handshake per connection.
+ */
+public class HttpsSetting {
+
+  private static final List<String> SUPPORTED_PROTOCOLS = List.of("TLSv1.2", "TLSv1.3");
+
+  private List<String> protocols = SUPPORTED_PROTOCOLS;
+  private boolean sessionCache = true;
+  private boolean sessionTickets = true;
+
+  /**
+   * Set the TLS protocol versions ({@code ssl_protocols}).
+   *
+   * @param protocols - {@code TLSv1.2} and/or {@code TLSv1.3}
+   * @return this setting
+   */
+  public HttpsSetting withProtocols(String... protocols) {
+    if (protocols.length == 0) {
+      throw new IllegalArgumentException("At least one TLS protocol is required");
+    }
+    for (String protocol : protocols) {
+      if (!SUPPORTED_PROTOCOLS.contains(protocol)) {
+        throw new IllegalArgumentException("Unsupported TLS protocol: " + protocol);
+      }
+    }
+    this.protocols = List.copyOf(Arrays.asList(protocols));
+    return this;
+  }
+
+  /**
+   * Resume sessions from a cache that is shared by all nginx workers ({@code ssl_session_cache}).
+   *
+   * @param sessionCache - whether sessions are cached on the server
+   * @return this setting
+   */
+  public HttpsSetting withSessionCache(boolean sessionCache) {
+    this.sessionCache = sessionCache;
+    return this;
+  }
+
+  /**
+   * Resume sessions from tickets that the client keeps ({@code ssl_session_tickets}).
+   *
+   * @param sessionTickets - whether session tickets are issued
+   * @return this setting
+   */
+  public HttpsSetting withSessionTickets(boolean sessionTickets) {
+    this.sessionTickets = sessionTickets;
+    return this;
+  }
+
+  /**
+   * @return enabled TLS protocol versions
+   */
+  public List<String> getProtocols() {
+    return protocols;
+  }
+
+  /**
+   * @return whether sessions are cached on the server
+   */
+  public boolean isSessionCache() {
+    return sessionCache;
+  }
+
+  /**
+   * @return whether session tickets are issued
+   */
+  public boolean isSessionTickets() {
+    return sessionTickets;
+  }
+
+  /**
+   * @param certificatePath - path of the certificate chain in the container
+   * @param keyPath - path of the private key in the container
+   * @return configuration for the server context of nginx
+   */
+  String renderServer(String certificatePath, String keyPath) {
+    StringBuilder conf = new StringBuilder();
+    conf.append("listen *:443 ssl;\n");
+    conf.append("ssl_certificate ").append(certificatePath).append(";\n");
+    conf.append("ssl_certificate_key ").append(keyPath).append(";\n");
+    conf.append("ssl_protocols ").append(String.join(" ", protocols)).append(";\n");
+    if (sessionCache) {
+      conf.append("ssl_session_cache shared:git_tls:10m;\n");
+      conf.append("ssl_session_timeout 1h;\n");
+    } else {
+      conf.append("ssl_session_cache off;\n");
+    }
+    conf.append("ssl_session_tickets ").append(sessionTickets ? "on" : "off").append(";\n");
+    return conf.toString();
+  }
+}
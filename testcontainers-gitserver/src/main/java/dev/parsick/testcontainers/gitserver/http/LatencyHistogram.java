@@ -0,0 +1,152 @@
+package dev.parsick.testcontainers.gitserver.http;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Latencies of requests, e.g. of one git operation in the {@link GitHttpAccessLog}.
+ *
+ * <p>The buckets double their upper bound from one millisecond on, which gives a readable overview
+ * from fast ref advertisements to large packs. Count, min, max, mean and buckets are exact. The
+ * percentiles are exact up to {@value #RESERVOIR_SIZE} latencies and are estimated from a uniform
+ * sample of that size beyond, so the memory does not grow with the number of requests.
+ */
+public class LatencyHistogram {
+
+  /** Number of latencies that are kept for the percentiles. */
+  public static final int RESERVOIR_SIZE = 10_000;
+
+  private static final long FIRST_UPPER_BOUND_NANOS = Duration.ofMillis(1).toNanos();
+  // upper bounds from 1 ms to 2^42 ms, the last bucket also counts longer latencies
+  private static final int BUCKET_COUNT = 43;
+
+  private final int[] bucketCounts = new int[BUCKET_COUNT];
+  private final Duration[] reservoir = new Duration[RESERVOIR_SIZE];
+  // fixed seed, so the same latencies give the same percentiles
+  private final Random random = new Random(0);
+  private int count;
+  private Duration min = Duration.ZERO;
+  private Duration max = Duration.ZERO;
+  private Duration sum = Duration.ZERO;
+  private boolean sorted = true;
+
+  /**
+   * Record a latency.
+   *
+   * @param latency - latency of one request
+   */
+  public void record(Duration latency) {
+    if (count == 0 || latency.compareTo(min) < 0) {
+      min = latency;
+    }
+    if (count == 0 || latency.compareTo(max) > 0) {
+      max = latency;
+    }
+    sum = sum.plus(latency);
+    bucketCounts[bucketIndex(latency)]++;
+    // reservoir sampling (algorithm R): every latency is kept with the same probability
+    int slot = count < RESERVOIR_SIZE ? count : random.nextInt(count + 1);
+    if (slot < RESERVOIR_SIZE) {
+      reservoir[slot] = latency;
+      sorted = false;
+    }
+    count++;
+  }
+
+  /**
+   * @return number of recorded latencies
+   */
+  public int getCount() {
+    return count;
+  }
+
+  /**
+   * @return smallest latency, zero if nothing was recorded
+   */
+  public Duration getMin() {
+    return min;
+  }
+
+  /**
+   * @return largest latency, zero if nothing was recorded
+   */
+  public Duration getMax() {
+    return max;
+  }
+
+  /**
+   * @return arithmetic mean of the latencies, zero if nothing was recorded
+   */
+  public Duration getMean() {
+    return count == 0 ? Duration.ZERO : sum.dividedBy(count);
+  }
+
+  /**
+   * Return the latency below or at which the given share of the requests completed (nearest rank
+   * method). Is an estimate if more than {@value #RESERVOIR_SIZE} latencies were recorded.
+   *
+   * @param percentile - percentile between 0 exclusive and 100 inclusive, e.g. 99
+   * @return latency of the percentile, zero if nothing was recorded
+   */
+  public Duration getPercentile(double percentile) {
+    if (percentile <= 0 || percentile > 100) {
+      throw new IllegalArgumentException("Percentile must be in (0, 100]: " + percentile);
+    }
+    int sampleSize = Math.min(count, RESERVOIR_SIZE);
+    if (sampleSize == 0) {
+      return Duration.ZERO;
+    }
+    if (!sorted) {
+      // the slots of the reservoir are interchangeable, so sorting does not bias the sample
+      Arrays.sort(reservoir, 0, sampleSize);
+      sorted = true;
+    }
+    int rank = (int) Math.ceil(percentile / 100 * sampleSize);
+    return reservoir[Math.max(rank, 1) - 1];
+  }
+
+  /**
+   * Return the number of latencies per bucket. The upper bound of a bucket is inclusive and twice
+   * the upper bound of the previous bucket, starting at one millisecond.
+   *
+   * @return counts by upper bound of the bucket, in ascending order up to the bucket of the max
+   */
+  public Map<Duration, Integer> getBuckets() {
+    Map<Duration, Integer> buckets = new LinkedHashMap<>();
+    if (count == 0) {
+      return buckets;
+    }
+    for (int index = 0; index <= bucketIndex(max); index++) {
+      buckets.put(Duration.ofNanos(FIRST_UPPER_BOUND_NANOS << index), bucketCounts[index]);
+    }
+    return buckets;
+  }
+
+  @Override
+  public String toString() {
+    return "count "
+        + getCount()
+        + ", min "
+        + getMin().toMillis()
+        + " ms, p50 "
+        + getPercentile(50).toMillis()
+        + " ms, p99 "
+        + getPercentile(99).toMillis()
+        + " ms, max "
+        + getMax().toMillis()
+        + " ms";
+  }
+
+  private static int bucketIndex(Duration latency) {
+    long nanos = latency.toNanos();
+    if (nanos <= FIRST_UPPER_BOUND_NANOS) {
+      return 0;
+    }
+    // smallest index whose upper bound of 2^index ms is at least the latency in whole ms
+    long millis = (nanos - 1) / FIRST_UPPER_BOUND_NANOS + 1;
+    return Math.min(Long.SIZE - Long.numberOfLeadingZeros(millis - 1), BUCKET_COUNT - 1);
+  }
+}
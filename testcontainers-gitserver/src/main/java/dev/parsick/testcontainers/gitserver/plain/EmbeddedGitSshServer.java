@@ -0,0 +1,393 @@
+package dev.parsick.testcontainers.gitserver.plain;
+
+import dev.parsick.testcontainers.gitserver.EmbeddedGitRepositories;
+import dev.parsick.testcontainers.gitserver.GitRepositoryCommands;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.apache.sshd.common.keyprovider.KeyPairProvider;
+import org.apache.sshd.common.util.buffer.ByteArrayBuffer;
+import org.apache.sshd.server.Environment;
+import org.apache.sshd.server.ExitCallback;
+import org.apache.sshd.server.SshServer;
+import org.apache.sshd.server.channel.ChannelSession;
+import org.apache.sshd.server.command.Command;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.transport.ReceivePack;
+import org.eclipse.jgit.transport.UploadPack;
+import org.testcontainers.lifecycle.Startable;
+
+/**
+ * Git SSH server that runs inside the JVM, with the same API as the {@link GitServerContainer}.
+ *
+ * <p>The SSH server of Apache MINA SSHD passes {@code git-upload-pack} and {@code git-receive-pack}
+ * to JGit, so the server starts in milliseconds and needs no docker. The user {@code git} logs in
+ * with the git password or, after {@link #withSshKeyAuth()}, with the generated client key pair.
+ * The repositories are kept in a temporary directory that is deleted when the server stops.
+ *
+ * <p>It implements {@link Startable}, so it can be used with the {@code @Container} annotation
+ * like a container. Use the container for tests of the compatibility with OpenSSH and the git
+ * command line.
+ *
+ * <p>Apache MINA SSHD ({@code org.apache.sshd:sshd-core}) and JGit ({@code
+ * org.eclipse.jgit:org.eclipse.jgit}) have to be on the classpath.
+ */
+public class EmbeddedGitSshServer implements Startable {
+
+  private static final String GIT_USER = "git";
+
+  private final EmbeddedGitRepositories repositories = new EmbeddedGitRepositories();
+  private String gitPassword = "12345";
+  private SshIdentity sshClientIdentity;
+  private byte[] sshClientPublicKey;
+  private SshServer sshServer;
+  private ExecutorService executor;
+
+  /**
+   * Override the default git password.
+   *
+   * <p>Default password is 12345
+   *
+   * @param password - git password
+   * @return instance of the git server
+   */
+  public EmbeddedGitSshServer withGitPassword(String password) {
+    this.gitPassword = password;
+    return this;
+  }
+
+  /**
+   * Override the default git repository name.
+   *
+   * <p>Default name is "testRepo"
+   *
+   * @param gitRepoName - name of the git repository that is created by default
+   * @return instance of the git server
+   */
+  public EmbeddedGitSshServer withGitRepo(String gitRepoName) {
+    repositories.withGitRepo(gitRepoName);
+    return this;
+  }
+
+  /**
+   * Create additional git repositories besides the default one.
+   *
+   * @param gitRepoNames - names of the additional git repositories
+   * @return instance of the git server
+   */
+  public EmbeddedGitSshServer withGitRepos(String... gitRepoNames) {
+    repositories.withGitRepos(gitRepoNames);
+    return this;
+  }
+
+  /**
+   * Enabled SSH public key authentication.
+   *
+   * <p>An ECDSA key pair is generated once per JVM, see {@link #withSshKeyAuth(SshKeyType)}.
+   *
+   * @return instance of the git server
+   */
+  public EmbeddedGitSshServer withSshKeyAuth() {
+    return withSshKeyAuth(SshKeyType.ECDSA_P256);
+  }
+
+  /**
+   * Enabled SSH public key authentication with a key pair of the given algorithm.
+   *
+   * <p>The key pair is generated in the JVM once per algorithm and shared with the containers.
+   * Apache MINA SSHD verifies Ed25519 keys only with Bouncy Castle ({@code
+   * org.bouncycastle:bcprov-jdk18on}) or {@code net.i2p.crypto:eddsa} on the classpath.
+   *
+   * @param keyType - algorithm of the client key pair
+   * @return instance of the git server
+   */
+  public EmbeddedGitSshServer withSshKeyAuth(SshKeyType keyType) {
+    sshClientIdentity = SshKeyGenerator.cached(keyType);
+    // the public key line is "<algorithm> <base64 blob> <comment>"
+    String publicKeyLine = new String(sshClientIdentity.getPublicKey(), StandardCharsets.US_ASCII);
+    sshClientPublicKey = Base64.getDecoder().decode(publicKeyLine.split(" ")[1]);
+    return this;
+  }
+
+  @Override
+  public void start() {
+    if (sshServer != null) {
+      return;
+    }
+    repositories.open();
+    executor =
+        Executors.newCachedThreadPool(
+            runnable -> {
+              Thread thread = new Thread(runnable, "embedded-git-ssh-server");
+              thread.setDaemon(true);
+              return thread;
+            });
+    sshServer = SshServer.setUpDefaultServer();
+    sshServer.setHost(InetAddress.getLoopbackAddress().getHostAddress());
+    sshServer.setPort(0);
+    sshServer.setKeyPairProvider(KeyPairProvider.wrap(HostKey.KEY_PAIR));
+    sshServer.setPasswordAuthenticator(
+        (username, password, session) -> GIT_USER.equals(username) && gitPassword.equals(password));
+    if (sshClientPublicKey != null) {
+      sshServer.setPublickeyAuthenticator(
+          (username, key, session) ->
+              GIT_USER.equals(username) && Arrays.equals(sshClientPublicKey, encode(key)));
+    }
+    sshServer.setCommandFactory((channel, command) -> new GitPackCommand(command));
+    try {
+      sshServer.start();
+    } catch (IOException e) {
+      stop();
+      throw new RuntimeException("Starting the embedded git ssh server failed", e);
+    }
+  }
+
+  @Override
+  public void stop() {
+    if (sshServer != null) {
+      try {
+        sshServer.stop(true);
+      } catch (IOException e) {
+        throw new RuntimeException("Stopping the embedded git ssh server failed", e);
+      } finally {
+        sshServer = null;
+      }
+    }
+    if (executor != null) {
+      executor.shutdownNow();
+      executor = null;
+    }
+    repositories.close();
+  }
+
+  /**
+   * @return loopback address on which the server listens
+   */
+  public String getHost() {
+    String address = InetAddress.getLoopbackAddress().getHostAddress();
+    return address.contains(":") ? "[" + address + "]" : address;
+  }
+
+  /**
+   * @return port of the server
+   */
+  public int getPort() {
+    if (sshServer == null) {
+      throw new IllegalStateException("Server is not started");
+    }
+    return sshServer.getPort();
+  }
+
+  /**
+   * Return the SSH URI for git repo.
+   *
+   * @return SSH URI
+   */
+  public URI getGitRepoURIAsSSH() {
+    return getGitRepoURIAsSSH(repositories.getGitRepoName());
+  }
+
+  /**
+   * Return the SSH URI for the git repo with the given name. The path is the same as in the
+   * container.
+   *
+   * @param gitRepoName - name of the default repository or of a repository added with {@code
+   *     withGitRepos}
+   * @return SSH URI
+   */
+  public URI getGitRepoURIAsSSH(String gitRepoName) {
+    if (!repositories.getGitRepoNames().contains(gitRepoName)) {
+      throw new IllegalArgumentException("Unknown git repo name: " + gitRepoName);
+    }
+    return URI.create(
+        "ssh://"
+            + GIT_USER
+            + "@"
+            + getHost()
+            + ":"
+            + getPort()
+            + GitRepositoryCommands.REPOSITORIES_PATH
+            + "/"
+            + gitRepoName
+            + ".git");
+  }
+
+  /**
+   * Return the names of all git repositories, the default repository first.
+   *
+   * @return names of the git repositories
+   */
+  public List<String> getGitRepoNames() {
+    return repositories.getGitRepoNames();
+  }
+
+  /**
+   * Return the JGit repository with the given name, e.g. to prepare or verify its content without
+   * a clone.
+   *
+   * @param gitRepoName - name of the default repository or of a repository added with {@code
+   *     withGitRepos}
+   * @return repository, only usable while the server is started
+   */
+  public Repository getRepository(String gitRepoName) {
+    return repositories.getRepository(gitRepoName);
+  }
+
+  /**
+   * Return the Git Password that was set with the method {@code withGitPassword}.
+   *
+   * <p>If no password was set, the default "12345" is returned.
+   *
+   * @return the git password
+   */
+  public String getGitPassword() {
+    return gitPassword;
+  }
+
+  /**
+   * Return the identity information for public key authentication.
+   *
+   * <p>If {@code withSshKeyAuth} was not called, then it returns null.
+   *
+   * @return identity information for a public key authentication
+   */
+  public SshIdentity getSshClientIdentity() {
+    return sshClientIdentity;
+  }
+
+  /**
+   * Return the public host key information of the ECDSA host key. The host key is generated once
+   * per JVM.
+   *
+   * @return public host key
+   */
+  public SshHostKey getHostKey() {
+    return new SshHostKey(getHost(), encode(HostKey.KEY_PAIR.getPublic()));
+  }
+
+  /**
+   * Return the host key as content of a known_hosts file, e.g. for strict host key checking.
+   *
+   * @return known_hosts content
+   */
+  public String getKnownHosts() {
+    return getHostKey().toKnownHostsEntry(getPort()) + "\n";
+  }
+
+  private static byte[] encode(PublicKey publicKey) {
+    ByteArrayBuffer buffer = new ByteArrayBuffer();
+    buffer.putRawPublicKey(publicKey);
+    return buffer.getCompactData();
+  }
+
+  /** Passes an exec request of the git client to JGit. */
+  private class GitPackCommand implements Command {
+
+    private final String command;
+    private InputStream in;
+    private OutputStream out;
+    private OutputStream err;
+    private ExitCallback exitCallback;
+
+    GitPackCommand(String command) {
+      this.command = command;
+    }
+
+    @Override
+    public void setInputStream(InputStream in) {
+      this.in = in;
+    }
+
+    @Override
+    public void setOutputStream(OutputStream out) {
+      this.out = out;
+    }
+
+    @Override
+    public void setErrorStream(OutputStream err) {
+      this.err = err;
+    }
+
+    @Override
+    public void setExitCallback(ExitCallback exitCallback) {
+      this.exitCallback = exitCallback;
+    }
+
+    @Override
+    public void start(ChannelSession channel, Environment env) {
+      executor.execute(this::run);
+    }
+
+    @Override
+    public void destroy(ChannelSession channel) {
+      // the streams are closed by the channel, which ends a running pack
+    }
+
+    private void run() {
+      int exitValue = 0;
+      try {
+        // e.g. git-upload-pack '/srv/git/testRepo.git' or git upload-pack '...'
+        String[] parts = command.trim().replaceFirst("^git\\s+", "git-").split("\\s+", 2);
+        String service = parts[0];
+        Optional<Repository> repository =
+            parts.length < 2 ? Optional.empty() : repositories.findRepository(repoName(parts[1]));
+        if (repository.isEmpty()) {
+          throw new IOException("Repository not found: " + command);
+        }
+        if ("git-upload-pack".equals(service)) {
+          new UploadPack(repository.get()).upload(in, out, err);
+        } else if ("git-receive-pack".equals(service)) {
+          new ReceivePack(repository.get()).receive(in, out, err);
+        } else {
+          throw new IOException("Unsupported command: " + command);
+        }
+        out.flush();
+      } catch (IOException | RuntimeException e) {
+        exitValue = 1;
+        try {
+          err.write((e.getMessage() + "\n").getBytes(StandardCharsets.UTF_8));
+          err.flush();
+        } catch (IOException ignored) {
+          // the client is gone already
+        }
+      } finally {
+        exitCallback.onExit(exitValue);
+      }
+    }
+
+    private String repoName(String path) {
+      String unquoted = path.replaceAll("^['\"]|['\"]$", "");
+      return unquoted.substring(unquoted.lastIndexOf('/') + 1);
+    }
+  }
+
+  /** Host key of all embedded servers, generated on first use. */
+  private static final class HostKey {
+
+    static final KeyPair KEY_PAIR = generate();
+
+    private static KeyPair generate() {
+      try {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        return generator.generateKeyPair();
+      } catch (GeneralSecurityException e) {
+        throw new RuntimeException("Generating the host key failed", e);
+      }
+    }
+  }
+}
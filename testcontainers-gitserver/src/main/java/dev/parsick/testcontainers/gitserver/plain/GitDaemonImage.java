@@ -0,0 +1,76 @@
+package dev.parsick.testcontainers.gitserver.plain;
+
+import dev.parsick.testcontainers.gitserver.ProvisionedImageCache;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import org.testcontainers.images.builder.ImageFromDockerfile;
+import org.testcontainers.images.builder.dockerfile.DockerfileBuilder;
+import org.testcontainers.utility.DockerImageName;
+import org.testcontainers.utility.LazyFuture;
+
+/**
+ * Docker image of a {@link GitServerContainer} with git daemon: the git server image with {@code
+ * git-daemon}, which the Alpine package of git does not contain.
+ *
+ * <p>The image is tagged with a hash of its Dockerfile and is kept after the JVM exits, so the
+ * package is installed once per git server image and not on every start of a container. Like the
+ * image of the {@code GitHttpServerContainer}, it keeps the package version of its build until it
+ * is removed, e.g. with {@code docker image rm}.
+ */
+public final class GitDaemonImage {
+
+  /** Repository of the images. */
+  public static final String IMAGE_REPOSITORY = "testcontainers-git/git-daemon";
+
+  private GitDaemonImage() {}
+
+  /**
+   * Return the name of the image for the given git server image.
+   *
+   * @param baseImage - git server image, e.g. {@code rockstorm/git-server:2.52}
+   * @return image name with the content hash as tag
+   */
+  public static String imageName(DockerImageName baseImage) {
+    return ProvisionedImageCache.imageName(IMAGE_REPOSITORY, List.of(dockerfile(baseImage)));
+  }
+
+  /**
+   * Return the image for a container. The image is built on first use, unless it exists locally.
+   *
+   * @param baseImage - git server image
+   * @return name of the image, resolved on first use
+   */
+  static Future<String> image(DockerImageName baseImage) {
+    String imageName = imageName(baseImage);
+    return new LazyFuture<>() {
+      @Override
+      protected String resolve() {
+        if (ProvisionedImageCache.findImage(imageName).isPresent()) {
+          return imageName;
+        }
+        try {
+          return new ImageFromDockerfile(imageName, false)
+              .withFileFromString("Dockerfile", dockerfile(baseImage))
+              .get();
+        } catch (ExecutionException e) {
+          throw new RuntimeException("Building the git daemon image failed", e);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new RuntimeException("Building the git daemon image was interrupted", e);
+        }
+      }
+    };
+  }
+
+  private static String dockerfile(DockerImageName baseImage) {
+    return new DockerfileBuilder()
+        .from(baseImage.asCanonicalNameString())
+        // custom git server images may contain git-daemon already
+        .run(
+            "if [ ! -x \"$(git --exec-path)/git-daemon\" ]; then "
+                + "apk add --no-cache git-daemon; "
+                + "fi")
+        .build();
+  }
+}
@@ -1,25 +1,84 @@
 package dev.parsick.testcontainers.gitserver.plain;
 
+import static dev.parsick.testcontainers.gitserver.GitRepositoryCommands.REPOSITORIES_PATH;
+import static dev.parsick.testcontainers.gitserver.GitRepositoryCommands.SNAPSHOT_PATH;
+
 import com.github.dockerjava.api.command.InspectContainerResponse;
+import com.github.dockerjava.api.model.Volume;
+import dev.parsick.testcontainers.gitserver.GitRepoConfig;
+import dev.parsick.testcontainers.gitserver.GitRepoImport;
+import dev.parsick.testcontainers.gitserver.GitRepoOptimizationReport;
+import dev.parsick.testcontainers.gitserver.GitRepositoryCommands;
+import dev.parsick.testcontainers.gitserver.InMemoryStorage;
+import dev.parsick.testcontainers.gitserver.ProvisionedImageCache;
+import dev.parsick.testcontainers.gitserver.ProvisioningResult;
+import dev.parsick.testcontainers.gitserver.ProvisioningScript;
+import dev.parsick.testcontainers.gitserver.ResettableGitServer;
+import dev.parsick.testcontainers.gitserver.StartupTimeline;
+import dev.parsick.testcontainers.gitserver.StartupTimelineRecorder;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Base64;
-import org.testcontainers.containers.BindMode;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 import org.testcontainers.containers.GenericContainer;
-import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.images.builder.Transferable;
 import org.testcontainers.utility.DockerImageName;
 import org.testcontainers.utility.MountableFile;
 
 /** Container for a plain Git Server based on the Docker image "rockstorm/git-server". */
-public class GitServerContainer extends GenericContainer<GitServerContainer> {
+public class GitServerContainer extends GenericContainer<GitServerContainer>
+    implements ResettableGitServer {
 
   private static final String GIT_PASSWORD_KEY = "GIT_PASSWORD";
+  private static final String CONFIGURE_GIT_REPOSITORY_STEP = "configure-git-repository";
+  private static final String APPLY_REPO_CONFIG_STEP = "apply-repo-config";
+  private static final String OPTIMIZE_GIT_REPOSITORY_STEP = "optimize-git-repository";
+  private static final String COLLECT_HOST_KEYS_STEP = "collect-host-keys";
+  private static final String FIX_FILE_PERMISSIONS_STEP = "fix-file-permissions";
+  private static final String START_GIT_DAEMON_STEP = "start-git-daemon";
+  private static final String GIT_DAEMON_ACCESS_HOOK_PATH = "/usr/local/bin/git-daemon-access-hook";
+  private static final int GIT_DAEMON_PORT = 9418;
+  private static final String IMPORT_STAGING_PATH = "/tmp/git-import";
+  private static final String AUTHORIZED_KEYS_PATH = "/home/git/.ssh/authorized_keys";
+  private static final String SSHD_CONFIG_PATH = "/etc/ssh/sshd_config";
+  private static final String COPY_GIT_REPOSITORY_PHASE = "copy-git-repository";
+  private static final String COMMIT_PROVISIONED_IMAGE_PHASE = "commit-provisioned-image";
+  private static final String HOST_KEYS_LABEL = "dev.parsick.testcontainers.git.host-keys";
   private static DockerImageName DEFAULT_DOCKER_IMAGE_NAME =
       DockerImageName.parse("rockstorm/git-server");
+  private final String baseImageName;
   private String gitRepoName = "testRepo";
+  private final Set<String> additionalGitRepoNames = new LinkedHashSet<>();
   private String pathToExistingRepo;
+  private GitRepoImport gitRepoImport;
   private SshIdentity sshClientIdentity;
-  private SshHostKey hostKey;
+  private SshdConcurrencyProfile sshdConcurrencyProfile;
+  private boolean gitDaemon;
+  private GitRepoConfig gitRepoConfig = new GitRepoConfig();
+  private boolean gitRepoOptimization;
+  private GitRepoOptimizationReport gitRepoOptimizationReport;
+  private List<SshHostKey> hostKeys = List.of();
+  private ProvisioningResult provisioningResult;
+  private boolean provisionedImageCache;
+  private boolean inMemoryStorage;
+  private String provisionedImageName;
+  private Map<String, String> provisionedImageLabels;
+  private long startingNanos;
+  private Duration timeToReady;
+  private final StartupTimelineRecorder startupTimelineRecorder = new StartupTimelineRecorder();
+  private StartupTimeline startupTimeline;
+  private Consumer<StartupTimeline> startupTimelineListener;
 
   /**
    * @param dockerImageName - name of the docker image
@@ -27,13 +86,9 @@ public class GitServerContainer extends GenericContainer<GitServerContainer> {
   public GitServerContainer(DockerImageName dockerImageName) {
     super(dockerImageName);
     dockerImageName.assertCompatibleWith(DEFAULT_DOCKER_IMAGE_NAME);
-    if ("2.38".compareTo(dockerImageName.getVersionPart()) <= 0) {
-      waitingFor(Wait.forLogMessage(".*Container configuration completed.*", 1))
-          .waitingFor(Wait.forListeningPorts(22))
-          .addExposedPorts(22);
-    } else {
-      waitingFor(Wait.forListeningPorts(22)).addExposedPorts(22);
-    }
+    baseImageName = dockerImageName.asCanonicalNameString();
+    // sshd is started after the container configuration, so a handshake also covers the config
+    waitingFor(new SshHandshakeWaitStrategy()).addExposedPorts(22);
     withCommand("/usr/sbin/sshd", "-D", "-e");
   }
 
@@ -59,30 +114,75 @@ public class GitServerContainer extends GenericContainer<GitServerContainer> {
    * @return instance of the git server container
    */
   public GitServerContainer withGitRepo(String gitRepoName) {
-    this.gitRepoName = gitRepoName;
+    this.gitRepoName = GitRepositoryCommands.checkRepoName(gitRepoName);
+    return this;
+  }
+
+  /**
+   * Create additional git repositories besides the default one.
+   *
+   * <p>All repositories are created in one batched step, so that the startup time stays nearly the
+   * same for hundreds of repositories.
+   *
+   * @param gitRepoNames - names of the additional git repositories
+   * @return instance of the git server container
+   */
+  public GitServerContainer withGitRepos(String... gitRepoNames) {
+    for (String name : gitRepoNames) {
+      additionalGitRepoNames.add(GitRepositoryCommands.checkRepoName(name));
+    }
+    return this;
+  }
+
+  /**
+   * Apply server side git configuration to all git repositories.
+   *
+   * @param gitRepoConfig - git configuration, e.g. pack and upload-pack settings
+   * @return instance of the git server container
+   */
+  public GitServerContainer withRepoConfig(GitRepoConfig gitRepoConfig) {
+    this.gitRepoConfig = gitRepoConfig;
     return this;
   }
 
   /**
    * Enabled SSH public key authentication.
    *
+   * <p>An ECDSA key pair is generated once per JVM, see {@link #withSshKeyAuth(SshKeyType)}.
+   *
    * @return instance of the git server container
    */
   public GitServerContainer withSshKeyAuth() {
-    try {
-      sshClientIdentity =
-          new SshIdentity(
-              this.getClass().getClassLoader().getResourceAsStream("id_client").readAllBytes(),
-              this.getClass().getClassLoader().getResourceAsStream("id_client.pub").readAllBytes(),
-              new byte[0]);
+    return withSshKeyAuth(SshKeyType.ECDSA_P256);
+  }
 
-      withClasspathResourceMapping(
-          "id_client.pub", "/home/git/.ssh/authorized_keys", BindMode.READ_ONLY);
-      withClasspathResourceMapping("sshd_config", "/etc/ssh/sshd_config", BindMode.READ_ONLY);
+  /**
+   * Enabled SSH public key authentication with a key pair of the given algorithm.
+   *
+   * <p>The key pair is generated in the JVM once per algorithm and reused by all containers of the
+   * JVM. Its public key is copied into the container as {@code authorized_keys}.
+   *
+   * @param keyType - algorithm of the client key pair
+   * @return instance of the git server container
+   */
+  public GitServerContainer withSshKeyAuth(SshKeyType keyType) {
+    sshClientIdentity = SshKeyGenerator.cached(keyType);
+    withCopyToContainer(
+        Transferable.of(sshClientIdentity.getPublicKey(), 0644), AUTHORIZED_KEYS_PATH);
+    return this;
+  }
 
-    } catch (IOException e) {
-      throw new RuntimeException(e);
-    }
+  /**
+   * Configure connection limits and keep-alive settings of the SSH server.
+   *
+   * <p>Use {@link SshdConcurrencyProfile#highConcurrency()} for tests with many parallel clients.
+   *
+   * @param sshdConcurrencyProfile - connection limits and keep-alive settings
+   * @return instance of the git server container
+   */
+  public GitServerContainer withSshdConcurrencyProfile(
+      SshdConcurrencyProfile sshdConcurrencyProfile) {
+    this.sshdConcurrencyProfile = sshdConcurrencyProfile;
     return this;
   }
 
@@ -98,6 +198,104 @@ public class GitServerContainer extends GenericContainer<GitServerContainer> {
    */
   public GitServerContainer withCopyExistingGitRepoToContainer(String pathtoExistingRepo) {
     this.pathToExistingRepo = pathtoExistingRepo;
+    this.gitRepoImport = null;
+    return this;
+  }
+
+  /**
+   * Import an existing git repository to the container.
+   *
+   * <p>Only the objects reachable from branches and tags are packed into a single packfile on the
+   * host. The packfile is streamed into the container and unpacked there into the bare repository.
+   * This is faster than copying the whole {@code .git} directory, especially for big repositories.
+   *
+   * @param gitRepoImport - import of the existing git repository
+   * @return instance of the git server container
+   */
+  public GitServerContainer withCopyExistingGitRepoToContainer(GitRepoImport gitRepoImport) {
+    this.gitRepoImport = gitRepoImport;
+    this.pathToExistingRepo = null;
+    return this;
+  }
+
+  /**
+   * Store the git repositories in memory instead of the file system of the container.
+   *
+   * <p>{@code /srv/git} is mounted as tmpfs, so that push-heavy tests do not depend on the disk of
+   * the docker host. The repositories are lost when the container stops. The provisioned image
+   * cache is not used, because {@code docker commit} does not include tmpfs mounts.
+   *
+   * @param sizeLimit - maximum size of the repositories with an optional unit {@code k}, {@code
+   *     m} or {@code g}, e.g. {@code 512m}
+   * @return instance of the git server container
+   */
+  public GitServerContainer withInMemoryStorage(String sizeLimit) {
+    withTmpFs(InMemoryStorage.tmpfs(REPOSITORIES_PATH, sizeLimit));
+    this.inMemoryStorage = true;
+    return this;
+  }
+
+  /**
+   * Serve all git repositories read-only via the git protocol ({@code git://}) besides SSH.
+   *
+   * <p>The git protocol has neither encryption nor authentication, so read-heavy tests can clone
+   * and fetch with less overhead. Pushing is only possible via SSH. If the image does not contain
+   * {@code git-daemon}, the container starts from a {@link GitDaemonImage} that is built once per
+   * git server image.
+   *
+   * @return instance of the git server container
+   */
+  public GitServerContainer withGitDaemon() {
+    this.gitDaemon = true;
+    addExposedPorts(GIT_DAEMON_PORT);
+    return this;
+  }
+
+  /**
+   * Cache the provisioned container as local docker image.
+   *
+   * <p>After the provisioning, the container is committed to a local image, whose tag is a hash of
+   * the configuration and of the content of an existing repository that is copied or imported.
+   * Later starts with the same configuration, in the same or in a later test run, start from this
+   * image and skip the whole provisioning.
+   *
+   * <p>The cached images are kept after the test run, see {@link ProvisionedImageCache} how to
+   * remove them.
+   *
+   * @return instance of the git server container
+   */
+  public GitServerContainer withProvisionedImageCache() {
+    this.provisionedImageCache = true;
+    return this;
+  }
+
+  /**
+   * Optimize the default git repository after it was copied or imported.
+   *
+   * <p>An existing repository keeps the layout of the working copy, e.g. loose objects and no
+   * commit-graph. The optimization writes one packfile with bitmap index and a commit-graph, so
+   * that clones are served like from a maintained server. The object statistics before and after
+   * are reported by {@link #getGitRepoOptimizationReport()}.
+   *
+   * @return instance of the git server container
+   */
+  public GitServerContainer withGitRepoOptimization() {
+    this.gitRepoOptimization = true;
+    return this;
+  }
+
+  /**
+   * Pass the startup timeline to the given listener after each start, e.g. to publish the phase
+   * durations as metrics.
+   *
+   * <p>The timeline is also logged at debug level.
+   *
+   * @param startupTimelineListener - listener that receives the timeline of each start
+   * @return instance of the git server container
+   */
+  public GitServerContainer withStartupTimelineListener(
+      Consumer<StartupTimeline> startupTimelineListener) {
+    this.startupTimelineListener = startupTimelineListener;
     return this;
   }
 
@@ -107,56 +305,454 @@ public class GitServerContainer extends GenericContainer<GitServerContainer> {
    * @return SSH URI
    */
   public URI getGitRepoURIAsSSH() {
+    return getGitRepoURIAsSSH(gitRepoName);
+  }
 
+  /**
+   * Return the SSH URI for the git repo with the given name.
+   *
+   * @param gitRepoName - name of the default repository or of a repository added with {@code
+   *     withGitRepos}
+   * @return SSH URI
+   */
+  public URI getGitRepoURIAsSSH(String gitRepoName) {
+    return URI.create(
+        "ssh://git@" + getHost() + ":" + getMappedPort(22) + getGitRepoPath(gitRepoName));
+  }
+
+  /**
+   * Return the git protocol URI for the git repo.
+   *
+   * @return git protocol URI
+   * @throws IllegalStateException if {@code withGitDaemon} was not called
+   */
+  public URI getGitRepoURIAsGitProtocol() {
+    return getGitRepoURIAsGitProtocol(gitRepoName);
+  }
+
+  /**
+   * Return the git protocol URI for the git repo with the given name.
+   *
+   * @param gitRepoName - name of the default repository or of a repository added with {@code
+   *     withGitRepos}
+   * @return git protocol URI
+   * @throws IllegalStateException if {@code withGitDaemon} was not called
+   */
+  public URI getGitRepoURIAsGitProtocol(String gitRepoName) {
+    if (!gitDaemon) {
+      throw new IllegalStateException("Git daemon is not enabled, call withGitDaemon() first");
+    }
+    String gitRepoPath = getGitRepoPath(gitRepoName);
     return URI.create(
-        "ssh://git@" + getHost() + ":" + getMappedPort(22) + "/srv/git/" + gitRepoName + ".git");
+        "git://"
+            + getHost()
+            + ":"
+            + getMappedPort(GIT_DAEMON_PORT)
+            + gitRepoPath.substring(REPOSITORIES_PATH.length()));
+  }
+
+  /**
+   * Return the names of all git repositories, starting with the default one.
+   *
+   * @return names of all git repositories
+   */
+  public List<String> getGitRepoNames() {
+    List<String> gitRepoNames = new ArrayList<>();
+    gitRepoNames.add(gitRepoName);
+    additionalGitRepoNames.stream()
+        .filter(name -> !name.equals(gitRepoName))
+        .forEach(gitRepoNames::add);
+    return gitRepoNames;
+  }
+
+  @Override
+  protected void configure() {
+    startupTimelineRecorder.begin();
+    super.configure();
+    provisionedImageLabels = null;
+    // a previous start may have used the cached image, which may be removed or outdated since then
+    if (gitDaemon) {
+      setImage(GitDaemonImage.image(DockerImageName.parse(baseImageName)));
+    } else {
+      setDockerImageName(baseImageName);
+    }
+    if (provisionedImageCache && inMemoryStorage) {
+      logger()
+          .warn("Provisioned image cache is not used, because {} is a tmpfs", REPOSITORIES_PATH);
+    } else if (provisionedImageCache) {
+      provisionedImageName = ProvisionedImageCache.imageName(provisionedImageConfiguration());
+      provisionedImageLabels = ProvisionedImageCache.findImage(provisionedImageName).orElse(null);
+      if (provisionedImageLabels != null) {
+        setDockerImageName(provisionedImageName);
+      }
+    }
+    startupTimelineRecorder.lap(StartupTimeline.CONFIGURE_PHASE);
+    // resolve the image here, so that the pull is not part of the create phase
+    getDockerImageName();
+    startupTimelineRecorder.lap(StartupTimeline.IMAGE_PHASE);
+  }
+
+  private List<String> provisionedImageConfiguration() {
+    List<String> configuration = new ArrayList<>();
+    configuration.add(
+        gitDaemon ? GitDaemonImage.imageName(DockerImageName.parse(baseImageName)) : baseImageName);
+    configuration.add(provisioningScript().render());
+    // written before the provisioning, so the committed image contains it
+    configuration.add(hasCustomSshdConfig() ? sshdConfig() : "");
+    try {
+      if (pathToExistingRepo != null) {
+        configuration.add(ProvisionedImageCache.fingerprint(Paths.get(pathToExistingRepo, ".git")));
+      } else if (gitRepoImport != null) {
+        configuration.add(gitRepoImport.fingerprint());
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("Reading existing Git repository failed", e);
+    }
+    return configuration;
+  }
+
+  @Override
+  protected void containerIsCreated(String containerId) {
+    super.containerIsCreated(containerId);
+    if (hasCustomSshdConfig()) {
+      copyFileToContainer(Transferable.of(sshdConfig()), SSHD_CONFIG_PATH);
+    }
+    startupTimelineRecorder.lap(StartupTimeline.CREATE_PHASE);
+  }
+
+  private boolean hasCustomSshdConfig() {
+    return sshClientIdentity != null || sshdConcurrencyProfile != null;
+  }
+
+  /** The bundled sshd_config enables public key authentication. */
+  private String sshdConfig() {
+    try (InputStream bundled = getClass().getClassLoader().getResourceAsStream("sshd_config")) {
+      String sshdConfig = new String(bundled.readAllBytes(), StandardCharsets.UTF_8);
+      return sshdConcurrencyProfile != null
+          ? sshdConcurrencyProfile.render(sshdConfig)
+          : sshdConfig;
+    } catch (IOException e) {
+      throw new RuntimeException("Reading sshd_config failed", e);
+    }
+  }
+
+  @Override
+  protected void containerIsStarting(InspectContainerResponse containerInfo) {
+    super.containerIsStarting(containerInfo);
+    startupTimelineRecorder.lap(StartupTimeline.START_PHASE);
+    startingNanos = System.nanoTime();
+  }
+
+  @Override
+  protected void waitUntilContainerStarted() {
+    super.waitUntilContainerStarted();
+    startupTimelineRecorder.lap(StartupTimeline.WAIT_PHASE);
   }
 
   @Override
   protected void containerIsStarted(InspectContainerResponse containerInfo) {
     super.containerIsStarted(containerInfo);
-    configureGitRepository();
-    collectHostKeyInformation();
-    fixFilePermissions();
+    timeToReady = Duration.ofNanos(System.nanoTime() - startingNanos);
+    logger().debug("SSH server of {} ready after {}", getDockerImageName(), timeToReady);
+    if (isStartedFromProvisionedImage()) {
+      // processes are not part of the image
+      provisioningResult = provision(startGitDaemon(new ProvisioningScript()));
+      hostKeys = parseHostKeys(provisionedImageLabels.get(HOST_KEYS_LABEL));
+      publishStartupTimeline();
+      return;
+    }
+    if (pathToExistingRepo != null || gitRepoImport != null) {
+      copyExistingGitRepository();
+      startupTimelineRecorder.lap(COPY_GIT_REPOSITORY_PHASE);
+    }
+    provisioningResult = provision(provisioningScript());
+    String hostKeyInformation =
+        provisioningResult
+            .getStep(COLLECT_HOST_KEYS_STEP)
+            .orElseThrow(() -> new RuntimeException("Could not collect host key information"))
+            .getOutput();
+    hostKeys = parseHostKeys(hostKeyInformation);
+    gitRepoOptimizationReport =
+        provisioningResult
+            .getStep(OPTIMIZE_GIT_REPOSITORY_STEP)
+            .map(GitRepoOptimizationReport::parse)
+            .orElse(null);
+    if (provisionedImageCache && !inMemoryStorage) {
+      commitProvisionedImage(containerInfo, hostKeyInformation);
+      startupTimelineRecorder.lap(COMMIT_PROVISIONED_IMAGE_PHASE);
+    }
+    publishStartupTimeline();
   }
 
-  /** Wrong file permissions cause authentication to fail. */
-  private void fixFilePermissions() {
-    try {
-      execInContainer("chmod", "600", "/home/git/.ssh/authorized_keys");
-    } catch (IOException | InterruptedException e) {
-      throw new RuntimeException(
-          "Could not fix file permissions on /home/git/.ssh/authorized_keys", e);
+  private void publishStartupTimeline() {
+    startupTimeline = startupTimelineRecorder.finish();
+    logger().debug("Startup timeline of {}: {}", getDockerImageName(), startupTimeline);
+    if (startupTimelineListener != null) {
+      startupTimelineListener.accept(startupTimeline);
     }
   }
 
-  private void collectHostKeyInformation() {
+  private ProvisioningScript provisioningScript() {
+    ProvisioningScript script = new ProvisioningScript();
+    configureGitRepository(script);
+    applyRepoConfig(script);
+    optimizeGitRepository(script);
+    collectHostKeyInformation(script);
+    fixFilePermissions(script);
+    return startGitDaemon(script);
+  }
+
+  private ProvisioningScript startGitDaemon(ProvisioningScript script) {
+    if (gitDaemon) {
+      String probeUri =
+          ProvisioningScript.quote(
+              "git://127.0.0.1" + getGitRepoPath().substring(REPOSITORIES_PATH.length()));
+      script.step(
+          START_GIT_DAEMON_STEP,
+          String.join(
+              "\n",
+              // the snapshot is below the base path, but must not be served
+              "printf '%s\\n' "
+                  + ProvisioningScript.quote(gitDaemonAccessHook())
+                  + " > "
+                  + GIT_DAEMON_ACCESS_HOOK_PATH,
+              "chmod 755 " + GIT_DAEMON_ACCESS_HOOK_PATH,
+              "git daemon --detach --reuseaddr --export-all --user=git --group=git --base-path="
+                  + REPOSITORIES_PATH
+                  + " --access-hook="
+                  + GIT_DAEMON_ACCESS_HOOK_PATH
+                  + " --port="
+                  + GIT_DAEMON_PORT,
+              "__tries=0",
+              "until git ls-remote " + probeUri + " > /dev/null 2>&1; do",
+              "  __tries=$((__tries + 1))",
+              "  [ \"$__tries\" -lt 200 ] || exit 1",
+              "  sleep 0.05",
+              "done"));
+    }
+    return script;
+  }
+
+  /** The hook gets the service and the path of the repository, a non-zero exit denies. */
+  private static String gitDaemonAccessHook() {
+    return String.join(
+        "\n",
+        "#!/bin/sh",
+        "case \"$2\" in",
+        "  " + SNAPSHOT_PATH + " | " + SNAPSHOT_PATH + "/*) exit 1 ;;",
+        "esac");
+  }
+
+  /** The cache is best effort, a failed commit must not fail the test. */
+  private void commitProvisionedImage(
+      InspectContainerResponse containerInfo, String hostKeyInformation) {
+    // docker commit does not include the content of volumes
+    boolean repositoriesInVolume =
+        containerInfo.getMounts() != null
+            && containerInfo.getMounts().stream()
+                .map(InspectContainerResponse.Mount::getDestination)
+                .filter(Objects::nonNull)
+                .map(Volume::getPath)
+                .anyMatch(
+                    path ->
+                        (REPOSITORIES_PATH + "/").startsWith(path + "/")
+                            || path.startsWith(REPOSITORIES_PATH + "/"));
+    if (repositoriesInVolume) {
+      logger().warn("Provisioned image is not cached, because {} is a volume", REPOSITORIES_PATH);
+      return;
+    }
     try {
-      ExecResult result = execInContainer("cat", "/etc/ssh/ssh_host_ecdsa_key.pub");
-      String[] catResult = result.getStdout().split(" ");
-      hostKey = new SshHostKey(getHost(), Base64.getDecoder().decode(catResult[1]));
-    } catch (IOException | InterruptedException e) {
-      throw new RuntimeException("Could not collect host key information", e);
+      ProvisionedImageCache.commit(
+          getContainerId(), provisionedImageName, Map.of(HOST_KEYS_LABEL, hostKeyInformation));
+      logger().debug("Provisioned container committed to image {}", provisionedImageName);
+    } catch (RuntimeException e) {
+      logger().warn("Committing provisioned container to {} failed", provisionedImageName, e);
+    }
+  }
+
+  private ProvisioningResult provision(ProvisioningScript script) {
+    ProvisioningResult result = script.executeOrFail(this);
+    logger().debug("{}", result);
+    startupTimelineRecorder.lap(StartupTimeline.PROVISIONING_PHASE, result);
+    return result;
+  }
+
+  /** Wrong file permissions cause authentication to fail. */
+  private void fixFilePermissions(ProvisioningScript script) {
+    // authorized_keys only exists with public key authentication
+    script.optionalStep(
+        FIX_FILE_PERMISSIONS_STEP,
+        "chown git:git " + AUTHORIZED_KEYS_PATH + " && chmod 600 " + AUTHORIZED_KEYS_PATH);
+  }
+
+  private void applyRepoConfig(ProvisioningScript script) {
+    if (!gitRepoConfig.isEmpty()) {
+      script.step(
+          APPLY_REPO_CONFIG_STEP,
+          GitRepositoryCommands.appendConfig(
+              getGitRepoNames().stream().map(this::getGitRepoPath).collect(Collectors.toList()),
+              gitRepoConfig.render()));
+    }
+  }
+
+  private void optimizeGitRepository(ProvisioningScript script) {
+    if (gitRepoOptimization) {
+      script.step(OPTIMIZE_GIT_REPOSITORY_STEP, GitRepositoryCommands.optimize(getGitRepoPath()));
+    }
+  }
+
+  /** Collect the public keys of all host key algorithms that sshd offers. */
+  private void collectHostKeyInformation(ProvisioningScript script) {
+    script.step(COLLECT_HOST_KEYS_STEP, "cat /etc/ssh/ssh_host_*_key.pub");
+  }
+
+  private List<SshHostKey> parseHostKeys(String hostKeyInformation) {
+    List<SshHostKey> keys = new ArrayList<>();
+    for (String line : hostKeyInformation.split("\n")) {
+      String[] catResult = line.trim().split(" ");
+      if (catResult.length >= 2) {
+        keys.add(new SshHostKey(getHost(), Base64.getDecoder().decode(catResult[1])));
+      }
+    }
+    if (keys.isEmpty()) {
+      throw new RuntimeException("Could not collect host key information");
     }
+    return keys;
   }
 
-  private void configureGitRepository() {
+  private void copyExistingGitRepository() {
     try {
-      String gitRepoPath = String.format("/srv/git/%s.git", gitRepoName);
       if (pathToExistingRepo != null) {
-        copyFileToContainer(MountableFile.forHostPath(pathToExistingRepo + "/.git"), gitRepoPath);
-        execInContainer("git", "config", "--bool", "core.bare", "true", gitRepoPath);
-        execInContainer("chown", "-R", "git:git", "/srv");
-      } else {
-        execInContainer("mkdir", "-p", gitRepoPath);
-        execInContainer("git", "init", "--bare", gitRepoPath);
-        execInContainer("chown", "-R", "git:git", "/srv");
+        copyFileToContainer(
+            MountableFile.forHostPath(pathToExistingRepo + "/.git"),
+            inMemoryStorage ? IMPORT_STAGING_PATH : getGitRepoPath());
+      } else if (gitRepoImport != null) {
+        gitRepoImport.copyToContainer(this, IMPORT_STAGING_PATH);
       }
-    } catch (IOException | InterruptedException e) {
-      throw new RuntimeException("Configure Git repository failed", e);
+    } catch (IOException e) {
+      throw new RuntimeException("Copying existing Git repository failed", e);
     }
   }
 
+  private void configureGitRepository(ProvisioningScript script) {
+    List<String> newRepoPaths =
+        getGitRepoNames().stream().map(this::getGitRepoPath).collect(Collectors.toList());
+    StringBuilder command = new StringBuilder();
+    if (pathToExistingRepo != null) {
+      if (inMemoryStorage) {
+        command
+            .append(
+                GitRepositoryCommands.moveStagedRepository(IMPORT_STAGING_PATH, getGitRepoPath()))
+            .append('\n');
+      }
+      command
+          .append("git config --file ")
+          .append(ProvisioningScript.quote(getGitRepoPath()))
+          .append("/config --bool core.bare true\n");
+      newRepoPaths.remove(getGitRepoPath());
+    } else if (gitRepoImport != null) {
+      command
+          .append(gitRepoImport.importCommand(IMPORT_STAGING_PATH, getGitRepoPath()))
+          .append('\n');
+      newRepoPaths.remove(getGitRepoPath());
+    }
+    command
+        .append(GitRepositoryCommands.initBareRepositories(newRepoPaths))
+        .append('\n')
+        .append(
+            GitRepositoryCommands.chownToGitUser(
+                getGitRepoNames().stream().map(this::getGitRepoPath).collect(Collectors.toList())));
+    script.step(CONFIGURE_GIT_REPOSITORY_STEP, command.toString());
+  }
+
+  /**
+   * Return the path of the default git repository inside the container.
+   *
+   * @return path of the git repository
+   */
+  public String getGitRepoPath() {
+    return getGitRepoPath(gitRepoName);
+  }
+
+  /**
+   * Return the path of the git repository with the given name inside the container.
+   *
+   * @param gitRepoName - name of the default repository or of a repository added with {@code
+   *     withGitRepos}
+   * @return path of the git repository
+   */
+  public String getGitRepoPath(String gitRepoName) {
+    if (!getGitRepoNames().contains(gitRepoName)) {
+      throw new IllegalArgumentException("Unknown git repo name: " + gitRepoName);
+    }
+    return String.format("/srv/git/%s.git", gitRepoName);
+  }
+
+  /**
+   * Return the result of the provisioning that ran after the container was started.
+   *
+   * <p>All provisioning steps (repository setup, host key collection, file permission fixes) are
+   * executed with one exec call. The result contains exit code, output and duration of every step.
+   *
+   * @return provisioning result or null if the container is not started yet
+   */
+  public ProvisioningResult getProvisioningResult() {
+    return provisioningResult;
+  }
+
+  /**
+   * Return the object statistics of the default git repository before and after the optimization.
+   *
+   * @return optimization report or null if {@code withGitRepoOptimization} was not called or the
+   *     container was started from a cached provisioned image
+   */
+  public GitRepoOptimizationReport getGitRepoOptimizationReport() {
+    return gitRepoOptimizationReport;
+  }
+
+  /**
+   * Return the time from the start of the container until its SSH server completed a handshake.
+   *
+   * <p>The provisioning is not included. It can be used to track the startup latency of the
+   * different {@code GitServerVersions}.
+   *
+   * @return time to ready or null if the container is not started yet
+   */
+  public Duration getTimeToReady() {
+    return timeToReady;
+  }
+
+  /**
+   * Return the durations of the phases of the last start: configuration, image pull, creation,
+   * start and wait strategy of the container, the copy of an existing repository, the provisioning
+   * with each of its steps and the commit of the provisioned image.
+   *
+   * @return startup timeline or null if the container is not started yet
+   */
+  public StartupTimeline getStartupTimeline() {
+    return startupTimeline;
+  }
+
+  /**
+   * Return the name of the cached provisioned image for the configuration of the last start.
+   *
+   * @return image name or null if {@code withProvisionedImageCache} is not enabled or the
+   *     container is not started yet
+   */
+  public String getProvisionedImageName() {
+    return provisionedImageName;
+  }
+
+  /**
+   * Return whether the container was started from a cached provisioned image.
+   *
+   * @return true if the provisioning was skipped, because {@code withProvisionedImageCache} is
+   *     enabled and a cached image for the configuration exists
+   */
+  public boolean isStartedFromProvisionedImage() {
+    return provisionedImageLabels != null;
+  }
+
   /**
    * Return the Git Password that was set with the method {@code withGitPassword}.
    *
@@ -181,11 +777,39 @@ public class GitServerContainer extends GenericContainer<GitServerContainer> {
   }
 
   /**
-   * Return the public host key information.
+   * Return the public host key information of the ECDSA host key.
    *
-   * @return public host key
+   * @return public host key or null if the container is not started yet
    */
   public SshHostKey getHostKey() {
-    return hostKey;
+    return hostKeys.stream()
+        .filter(key -> key.getType().startsWith("ecdsa-"))
+        .findFirst()
+        .orElse(hostKeys.isEmpty() ? null : hostKeys.get(0));
+  }
+
+  /**
+   * Return the public host keys of all algorithms that the SSH server offers, e.g. ed25519, ecdsa
+   * and rsa.
+   *
+   * @return public host keys or an empty list if the container is not started yet
+   */
+  public List<SshHostKey> getHostKeys() {
+    return hostKeys;
+  }
+
+  /**
+   * Return the content of a known_hosts file that contains all host keys for the mapped SSH port.
+   *
+   * <p>With this file, SSH clients can verify the host key strictly with any algorithm they
+   * prefer, e.g. with {@code ssh -o UserKnownHostsFile=... -o StrictHostKeyChecking=yes}.
+   *
+   * @return known_hosts content
+   */
+  public String getKnownHosts() {
+    int port = getMappedPort(22);
+    return hostKeys.stream()
+        .map(key -> key.toKnownHostsEntry(port) + "\n")
+        .collect(Collectors.joining());
   }
 }
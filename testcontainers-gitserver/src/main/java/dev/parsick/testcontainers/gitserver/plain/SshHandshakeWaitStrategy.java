@@ -0,0 +1,117 @@
+package dev.parsick.testcontainers.gitserver.plain;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import org.testcontainers.containers.ContainerLaunchException;
+import org.testcontainers.containers.wait.strategy.AbstractWaitStrategy;
+
+/**
+ * Waits until the SSH server of the container answers an SSH handshake from the host.
+ *
+ * <p>The strategy connects to the mapped port, exchanges the protocol version banners and waits
+ * for the key exchange init packet of the server. A port that only accepts connections, like the
+ * port proxy of docker does before the SSH server is started, is not regarded as ready. No command
+ * is executed inside the container.
+ */
+public class SshHandshakeWaitStrategy extends AbstractWaitStrategy {
+
+  private static final int SSH_MSG_KEXINIT = 20;
+  private static final int MAX_BANNER_LENGTH = 255;
+  private static final byte[] CLIENT_BANNER =
+      "SSH-2.0-testcontainers-git\r\n".getBytes(StandardCharsets.US_ASCII);
+
+  private int port = 22;
+  private Duration pollInterval = Duration.ofMillis(50);
+  private Duration connectTimeout = Duration.ofSeconds(1);
+
+  /**
+   * Set the SSH port inside the container.
+   *
+   * <p>Default port is 22
+   *
+   * @param port - SSH port inside the container
+   * @return this wait strategy
+   */
+  public SshHandshakeWaitStrategy forPort(int port) {
+    this.port = port;
+    return this;
+  }
+
+  /**
+   * Set the interval between two handshake attempts.
+   *
+   * <p>Default interval is 50 ms
+   *
+   * @param pollInterval - interval between two handshake attempts
+   * @return this wait strategy
+   */
+  public SshHandshakeWaitStrategy withPollInterval(Duration pollInterval) {
+    this.pollInterval = pollInterval;
+    return this;
+  }
+
+  @Override
+  protected void waitUntilReady() {
+    long deadline = System.nanoTime() + startupTimeout.toNanos();
+    String host = waitStrategyTarget.getHost();
+    int mappedPort = waitStrategyTarget.getMappedPort(port);
+    while (!handshake(host, mappedPort)) {
+      if (System.nanoTime() - deadline > 0) {
+        throw new ContainerLaunchException(
+            "Timed out waiting for SSH handshake on " + host + ":" + mappedPort);
+      }
+      try {
+        Thread.sleep(pollInterval.toMillis());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new ContainerLaunchException("Interrupted while waiting for SSH handshake", e);
+      }
+    }
+  }
+
+  private boolean handshake(String host, int mappedPort) {
+    try (Socket socket = new Socket()) {
+      socket.connect(new InetSocketAddress(host, mappedPort), (int) connectTimeout.toMillis());
+      socket.setSoTimeout((int) connectTimeout.toMillis());
+      socket.setTcpNoDelay(true);
+      OutputStream out = socket.getOutputStream();
+      out.write(CLIENT_BANNER);
+      out.flush();
+      DataInputStream in = new DataInputStream(socket.getInputStream());
+      String banner;
+      do {
+        // the server may send other lines before its version banner
+        banner = readLine(in);
+      } while (banner != null && !banner.startsWith("SSH-"));
+      if (banner == null || !banner.startsWith("SSH-2.0-")) {
+        return false;
+      }
+      // binary packet: uint32 packet_length, byte padding_length, byte message type
+      int packetLength = in.readInt();
+      in.readUnsignedByte();
+      return packetLength > 0 && in.readUnsignedByte() == SSH_MSG_KEXINIT;
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  private static String readLine(InputStream in) throws IOException {
+    StringBuilder line = new StringBuilder();
+    int c;
+    while ((c = in.read()) != -1 && c != '\n') {
+      if (line.length() >= MAX_BANNER_LENGTH) {
+        return null;
+      }
+      if (c != '\r') {
+        line.append((char) c);
+      }
+    }
+    return c == -1 ? null : line.toString();
+  }
+}
@@ -1,5 +1,9 @@
 package dev.parsick.testcontainers.gitserver.plain;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
 /** Value object for SSH Host key information. */
 public class SshHostKey {
 
@@ -26,6 +30,30 @@ public class SshHostKey {
     return key;
   }
 
+  /**
+   * Algorithm of the host key, e.g. {@code ssh-ed25519}. It is read from the public key, which
+   * starts with the name of its algorithm.
+   *
+   * @return algorithm name
+   */
+  public String getType() {
+    ByteBuffer buffer = ByteBuffer.wrap(key);
+    byte[] type = new byte[buffer.getInt()];
+    buffer.get(type);
+    return new String(type, StandardCharsets.US_ASCII);
+  }
+
+  /**
+   * Line of a known_hosts file for this host key.
+   *
+   * @param port - SSH port on the host
+   * @return known_hosts line without line break
+   */
+  public String toKnownHostsEntry(int port) {
+    String host = port == 22 ? hostname : "[" + hostname + "]:" + port;
+    return host + " " + getType() + " " + Base64.getEncoder().encodeToString(key);
+  }
+
   /**
    * Name of the host
    *
@@ -0,0 +1,196 @@
+package dev.parsick.testcontainers.gitserver.plain;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.SecureRandom;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Generates SSH key pairs for public key authentication in the JVM.
+ *
+ * <p>No key is read from the classpath, so no private key is shared between test runs. Generating
+ * a key pair takes some milliseconds, therefore {@link #cached(SshKeyType)} generates only one key
+ * pair per algorithm and JVM.
+ */
+public final class SshKeyGenerator {
+
+  private static final String COMMENT = "testcontainers-git";
+  private static final Map<SshKeyType, SshIdentity> CACHE = new ConcurrentHashMap<>();
+  private static final SecureRandom RANDOM = new SecureRandom();
+
+  // DER structure of a SEC1 EC private key of the curve P-256 (RFC 5915)
+  private static final byte[] SEC1_P256_HEADER = {0x30, 0x77, 0x02, 0x01, 0x01, 0x04, 0x20};
+  private static final byte[] SEC1_P256_CURVE_AND_PUBLIC_KEY_HEADER = {
+    (byte) 0xa0, 0x0a, 0x06, 0x08, 0x2a, (byte) 0x86, 0x48, (byte) 0xce, 0x3d, 0x03, 0x01, 0x07,
+    (byte) 0xa1, 0x44, 0x03, 0x42, 0x00
+  };
+
+  private SshKeyGenerator() {}
+
+  /**
+   * Return the key pair of the given algorithm that is generated once per JVM.
+   *
+   * @param type - algorithm of the key pair
+   * @return identity information for a public key authentication
+   */
+  public static SshIdentity cached(SshKeyType type) {
+    return CACHE.computeIfAbsent(type, SshKeyGenerator::generate);
+  }
+
+  /**
+   * Generate a new key pair of the given algorithm.
+   *
+   * @param type - algorithm of the key pair
+   * @return identity information for a public key authentication
+   */
+  public static SshIdentity generate(SshKeyType type) {
+    try {
+      switch (type) {
+        case ED25519:
+          return generateEd25519();
+        case ECDSA_P256:
+          return generateEcdsaP256();
+        default:
+          throw new IllegalArgumentException("Unsupported key type: " + type);
+      }
+    } catch (GeneralSecurityException | IOException e) {
+      throw new RuntimeException("Generating " + type + " key pair failed", e);
+    }
+  }
+
+  private static SshIdentity generateEd25519() throws GeneralSecurityException, IOException {
+    KeyPair keyPair = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+    // X.509 and PKCS#8 encodings end with the raw 32 byte public key and private key seed
+    byte[] publicKey = lastBytes(keyPair.getPublic().getEncoded(), 32);
+    byte[] seed = lastBytes(keyPair.getPrivate().getEncoded(), 32);
+    String algorithm = SshKeyType.ED25519.getAlgorithm();
+
+    ByteArrayOutputStream publicBlob = new ByteArrayOutputStream();
+    DataOutputStream publicOut = new DataOutputStream(publicBlob);
+    writeString(publicOut, algorithm);
+    writeString(publicOut, publicKey);
+
+    // openssh-key-v1 format, see PROTOCOL.key of OpenSSH
+    ByteArrayOutputStream privateSection = new ByteArrayOutputStream();
+    DataOutputStream privateOut = new DataOutputStream(privateSection);
+    int checkInt = RANDOM.nextInt();
+    privateOut.writeInt(checkInt);
+    privateOut.writeInt(checkInt);
+    writeString(privateOut, algorithm);
+    writeString(privateOut, publicKey);
+    writeString(privateOut, concat(seed, publicKey));
+    writeString(privateOut, COMMENT);
+    for (int padding = 1; privateSection.size() % 8 != 0; padding++) {
+      privateOut.write(padding);
+    }
+
+    ByteArrayOutputStream privateBlob = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(privateBlob);
+    out.write("openssh-key-v1\0".getBytes(StandardCharsets.US_ASCII));
+    writeString(out, "none");
+    writeString(out, "none");
+    writeString(out, "");
+    out.writeInt(1);
+    writeString(out, publicBlob.toByteArray());
+    writeString(out, privateSection.toByteArray());
+
+    return identity(
+        pem("OPENSSH PRIVATE KEY", privateBlob.toByteArray(), 70),
+        publicKeyLine(algorithm, publicBlob.toByteArray()));
+  }
+
+  private static SshIdentity generateEcdsaP256() throws GeneralSecurityException, IOException {
+    KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+    generator.initialize(new ECGenParameterSpec("secp256r1"), RANDOM);
+    KeyPair keyPair = generator.generateKeyPair();
+    ECPublicKey publicKey = (ECPublicKey) keyPair.getPublic();
+    ECPrivateKey privateKey = (ECPrivateKey) keyPair.getPrivate();
+    byte[] point =
+        concat(
+            new byte[] {0x04},
+            unsigned(publicKey.getW().getAffineX()),
+            unsigned(publicKey.getW().getAffineY()));
+    String algorithm = SshKeyType.ECDSA_P256.getAlgorithm();
+
+    ByteArrayOutputStream publicBlob = new ByteArrayOutputStream();
+    DataOutputStream publicOut = new DataOutputStream(publicBlob);
+    writeString(publicOut, algorithm);
+    writeString(publicOut, "nistp256");
+    writeString(publicOut, point);
+
+    byte[] sec1 =
+        concat(
+            SEC1_P256_HEADER,
+            unsigned(privateKey.getS()),
+            SEC1_P256_CURVE_AND_PUBLIC_KEY_HEADER,
+            point);
+
+    return identity(
+        pem("EC PRIVATE KEY", sec1, 64), publicKeyLine(algorithm, publicBlob.toByteArray()));
+  }
+
+  private static SshIdentity identity(String privateKey, String publicKey) {
+    return new SshIdentity(
+        privateKey.getBytes(StandardCharsets.US_ASCII),
+        publicKey.getBytes(StandardCharsets.US_ASCII),
+        new byte[0]);
+  }
+
+  private static String publicKeyLine(String algorithm, byte[] publicBlob) {
+    return algorithm + " " + Base64.getEncoder().encodeToString(publicBlob) + " " + COMMENT + "\n";
+  }
+
+  private static String pem(String type, byte[] content, int lineLength) {
+    Base64.Encoder encoder =
+        Base64.getMimeEncoder(lineLength, "\n".getBytes(StandardCharsets.US_ASCII));
+    return "-----BEGIN "
+        + type
+        + "-----\n"
+        + encoder.encodeToString(content)
+        + "\n-----END "
+        + type
+        + "-----\n";
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    writeString(out, value.getBytes(StandardCharsets.US_ASCII));
+  }
+
+  private static void writeString(DataOutputStream out, byte[] value) throws IOException {
+    out.writeInt(value.length);
+    out.write(value);
+  }
+
+  /** Fixed length big endian representation of a coordinate or scalar of the curve P-256. */
+  private static byte[] unsigned(BigInteger value) {
+    byte[] bytes = value.toByteArray();
+    byte[] result = new byte[32];
+    int length = Math.min(bytes.length, 32);
+    System.arraycopy(bytes, bytes.length - length, result, 32 - length, length);
+    return result;
+  }
+
+  private static byte[] lastBytes(byte[] bytes, int length) {
+    return Arrays.copyOfRange(bytes, bytes.length - length, bytes.length);
+  }
+
+  private static byte[] concat(byte[]... parts) {
+    ByteArrayOutputStream result = new ByteArrayOutputStream();
+    for (byte[] part : parts) {
+      result.write(part, 0, part.length);
+    }
+    return result.toByteArray();
+  }
+}
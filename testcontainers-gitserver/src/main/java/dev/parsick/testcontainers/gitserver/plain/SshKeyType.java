@@ -0,0 +1,30 @@
+package dev.parsick.testcontainers.gitserver.plain;
+
+/** Algorithm of an SSH key pair that is generated for public key authentication. */
+public enum SshKeyType {
+
+  /**
+   * Ed25519 key pair, private key in OpenSSH format.
+   *
+   * <p>Needs Java 15 or later. Not supported by JSch 0.1.x.
+   */
+  ED25519("ssh-ed25519"),
+
+  /** ECDSA key pair with curve P-256, private key in PEM format. Supported by all SSH clients. */
+  ECDSA_P256("ecdsa-sha2-nistp256");
+
+  private final String algorithm;
+
+  SshKeyType(String algorithm) {
+    this.algorithm = algorithm;
+  }
+
+  /**
+   * SSH name of the key algorithm
+   *
+   * @return SSH name of the key algorithm, e.g. {@code ssh-ed25519}
+   */
+  public String getAlgorithm() {
+    return algorithm;
+  }
+}
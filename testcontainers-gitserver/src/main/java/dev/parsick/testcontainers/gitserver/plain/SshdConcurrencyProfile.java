@@ -0,0 +1,132 @@
+package dev.parsick.testcontainers.gitserver.plain;
+
+import java.time.Duration;
+
+/**
+ * Connection limits and keep-alive settings of the SSH server in the container.
+ *
+ * <p>The OpenSSH defaults drop new connections randomly as soon as 10 connections are not yet
+ * authenticated ({@code MaxStartups 10:30:100}), which lets concurrent clones fail at about 10
+ * parallel clients. {@link #highConcurrency()} raises the limits, so that the container can serve
+ * hundreds of simultaneous fetches.
+ */
+public class SshdConcurrencyProfile {
+
+  private String maxStartups = "10:30:100";
+  private int maxSessions = 10;
+  private Duration loginGraceTime = Duration.ofMinutes(2);
+  private Duration clientAliveInterval = Duration.ZERO;
+  private int clientAliveCountMax = 3;
+
+  /**
+   * Profile with the OpenSSH defaults.
+   *
+   * @return profile with the OpenSSH defaults
+   */
+  public static SshdConcurrencyProfile defaults() {
+    return new SshdConcurrencyProfile();
+  }
+
+  /**
+   * Profile for load tests with many parallel clients.
+   *
+   * <p>Up to 1000 connections may be unauthenticated at the same time, a connection may multiplex
+   * 100 sessions, and idle clients are detected after one minute.
+   *
+   * @return profile for many parallel clients
+   */
+  public static SshdConcurrencyProfile highConcurrency() {
+    return new SshdConcurrencyProfile()
+        .withMaxStartups(1000)
+        .withMaxSessions(100)
+        .withLoginGraceTime(Duration.ofSeconds(30))
+        .withClientAlive(Duration.ofSeconds(15), 4);
+  }
+
+  /**
+   * Set the maximum number of concurrent unauthenticated connections ({@code MaxStartups}).
+   * Additional connections are refused.
+   *
+   * @param maxStartups - maximum number of concurrent unauthenticated connections
+   * @return this profile
+   */
+  public SshdConcurrencyProfile withMaxStartups(int maxStartups) {
+    this.maxStartups = String.valueOf(maxStartups);
+    return this;
+  }
+
+  /**
+   * Set the random early drop of unauthenticated connections ({@code MaxStartups
+   * start:rate:full}).
+   *
+   * @param start - number of unauthenticated connections from which connections are dropped
+   * @param rate - percentage of dropped connections at {@code start}
+   * @param full - number of unauthenticated connections from which all connections are dropped
+   * @return this profile
+   */
+  public SshdConcurrencyProfile withMaxStartups(int start, int rate, int full) {
+    this.maxStartups = start + ":" + rate + ":" + full;
+    return this;
+  }
+
+  /**
+   * Set the maximum number of sessions per connection ({@code MaxSessions}).
+   *
+   * @param maxSessions - maximum number of sessions per connection
+   * @return this profile
+   */
+  public SshdConcurrencyProfile withMaxSessions(int maxSessions) {
+    this.maxSessions = maxSessions;
+    return this;
+  }
+
+  /**
+   * Set the time after which an unauthenticated connection is closed ({@code LoginGraceTime}).
+   *
+   * @param loginGraceTime - time for the authentication, zero for no limit
+   * @return this profile
+   */
+  public SshdConcurrencyProfile withLoginGraceTime(Duration loginGraceTime) {
+    this.loginGraceTime = loginGraceTime;
+    return this;
+  }
+
+  /**
+   * Set the keep-alive messages that the server sends to idle clients ({@code
+   * ClientAliveInterval}, {@code ClientAliveCountMax}).
+   *
+   * @param interval - idle time after which a keep-alive message is sent, zero to disable
+   * @param countMax - number of unanswered keep-alive messages after which a client is
+   *     disconnected
+   * @return this profile
+   */
+  public SshdConcurrencyProfile withClientAlive(Duration interval, int countMax) {
+    this.clientAliveInterval = interval;
+    this.clientAliveCountMax = countMax;
+    return this;
+  }
+
+  /**
+   * Render the settings of this profile in front of the given sshd configuration.
+   *
+   * <p>sshd uses the first value of a keyword, so the settings of the profile win over the given
+   * configuration.
+   *
+   * @param sshdConfig - content of an sshd_config file
+   * @return content of the sshd_config file with the settings of this profile
+   */
+  public String render(String sshdConfig) {
+    return String.join(
+        "\n",
+        "# concurrency profile of testcontainers-git",
+        "MaxStartups " + maxStartups,
+        "MaxSessions " + maxSessions,
+        "LoginGraceTime " + loginGraceTime.getSeconds(),
+        "ClientAliveInterval " + clientAliveInterval.getSeconds(),
+        "ClientAliveCountMax " + clientAliveCountMax,
+        // reverse lookups of the docker network only slow down every connection
+        "UseDNS no",
+        "",
+        sshdConfig);
+  }
+}
@@ -0,0 +1,106 @@
+package dev.parsick.testcontainers.gitserver;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import dev.parsick.testcontainers.gitserver.http.GitHttpServerContainer;
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.testcontainers.utility.DockerImageName;
+
+public class GitServerContainerPoolTest {
+
+  private static final DockerImageName LATEST_GIT_SERVER_VERSION =
+      GitServerVersions.V2_52.getDockerImageName();
+
+  @TempDir private File tempDir;
+
+  @Test
+  void leasedContainerIsResetAfterReturn() throws GitAPIException, IOException {
+    try (var pool =
+        new GitServerContainerPool<>(
+            () -> new GitHttpServerContainer(LATEST_GIT_SERVER_VERSION), 1)) {
+      try (var lease = pool.lease()) {
+        String gitRepoURI = lease.getContainer().getGitRepoURIAsHttp().toString();
+        Git git = Git.cloneRepository().setURI(gitRepoURI).setDirectory(tempDir).call();
+        new File(tempDir, "test.txt").createNewFile();
+        git.add().addFilepattern(".").call();
+        git.commit().setSign(false).setMessage("test").call();
+        git.push().call();
+        assertThat(Git.lsRemoteRepository().setRemote(gitRepoURI).call()).isNotEmpty();
+      }
+
+      try (var lease = pool.lease()) {
+        String gitRepoURI = lease.getContainer().getGitRepoURIAsHttp().toString();
+        assertThat(Git.lsRemoteRepository().setRemote(gitRepoURI).call()).isEmpty();
+      }
+    }
+  }
+
+  @Test
+  void stoppedContainerIsReplaced() {
+    try (var pool =
+        new GitServerContainerPool<>(
+            () -> new GitHttpServerContainer(LATEST_GIT_SERVER_VERSION), 1)) {
+      GitHttpServerContainer stoppedContainer;
+      try (var lease = pool.lease()) {
+        stoppedContainer = lease.getContainer();
+      }
+      stoppedContainer.stop();
+
+      try (var lease = pool.lease()) {
+        assertThat(lease.getContainer()).isNotSameAs(stoppedContainer);
+        assertThat(lease.getContainer().isRunning()).isTrue();
+      }
+    }
+  }
+
+  @Test
+  void leaseTimesOut() {
+    try (var pool =
+        new GitServerContainerPool<>(
+            () -> new GitHttpServerContainer(LATEST_GIT_SERVER_VERSION), 1)) {
+      try (var lease = pool.lease()) {
+        assertThatThrownBy(() -> pool.lease(Duration.ofMillis(100)))
+            .isInstanceOf(IllegalStateException.class);
+      }
+    }
+  }
+
+  @Test
+  void failedStartStopsStartedContainersAndIsRetriedByNextLease() {
+    List<GitHttpServerContainer> created = new CopyOnWriteArrayList<>();
+    AtomicInteger calls = new AtomicInteger();
+    try (var pool =
+        new GitServerContainerPool<>(
+            () -> {
+              if (calls.getAndIncrement() == 0) {
+                throw new IllegalStateException("Container can not be created");
+              }
+              GitHttpServerContainer container =
+                  new GitHttpServerContainer(LATEST_GIT_SERVER_VERSION);
+              created.add(container);
+              return container;
+            },
+            2)) {
+      assertThatThrownBy(pool::lease)
+          .isInstanceOf(RuntimeException.class)
+          .hasRootCauseMessage("Container can not be created");
+      assertThat(pool.getLiveCount()).isZero();
+      assertThat(created).hasSize(1).noneMatch(GitHttpServerContainer::isRunning);
+
+      try (var lease = pool.lease()) {
+        assertThat(lease.getContainer().isRunning()).isTrue();
+        assertThat(pool.getLiveCount()).isEqualTo(2);
+      }
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package dev.parsick.testcontainers.gitserver;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ProvisionedImageCacheTest {
+
+  @TempDir private File sampleRepo;
+
+  @Test
+  void fingerprintChangesWithRefs() throws GitAPIException, IOException {
+    Git git = Git.init().setDirectory(sampleRepo).setInitialBranch("main").call();
+    RevCommit first = git.commit().setSign(false).setMessage("first").call();
+    Path gitDir = sampleRepo.toPath().resolve(".git");
+    String fingerprint = ProvisionedImageCache.fingerprint(gitDir);
+
+    git.commit().setSign(false).setMessage("second").call();
+
+    assertThat(ProvisionedImageCache.fingerprint(gitDir))
+        .isNotEqualTo(fingerprint)
+        .contains("refs/heads/main")
+        .doesNotContain(first.name());
+  }
+
+  @Test
+  void fingerprintIgnoresModificationTimes() throws GitAPIException, IOException {
+    Git git = Git.init().setDirectory(sampleRepo).setInitialBranch("main").call();
+    git.commit().setSign(false).setMessage("first").call();
+    Path gitDir = sampleRepo.toPath().resolve(".git");
+    String fingerprint = ProvisionedImageCache.fingerprint(gitDir);
+
+    try (Stream<Path> files = Files.walk(gitDir)) {
+      for (Path file : files.filter(Files::isRegularFile).collect(Collectors.toList())) {
+        Files.setLastModifiedTime(file, FileTime.fromMillis(0));
+      }
+    }
+
+    assertThat(ProvisionedImageCache.fingerprint(gitDir)).isEqualTo(fingerprint);
+  }
+
+  @Test
+  void fingerprintReadsPackedRefs() throws GitAPIException, IOException {
+    Git git = Git.init().setDirectory(sampleRepo).setInitialBranch("main").call();
+    RevCommit commit = git.commit().setSign(false).setMessage("first").call();
+    git.tag().setName("v1").setMessage("v1").call();
+    Path gitDir = sampleRepo.toPath().resolve(".git");
+    String fingerprint = ProvisionedImageCache.fingerprint(gitDir);
+
+    git.packRefs().setAll(true).call();
+
+    assertThat(Files.exists(gitDir.resolve("refs/heads/main"))).isFalse();
+    assertThat(ProvisionedImageCache.fingerprint(gitDir))
+        .isEqualTo(fingerprint)
+        .contains("refs/heads/main " + commit.name(), "refs/tags/v1 ");
+  }
+}
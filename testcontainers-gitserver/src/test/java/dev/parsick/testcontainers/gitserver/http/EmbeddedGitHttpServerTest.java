@@ -0,0 +1,119 @@
+package dev.parsick.testcontainers.gitserver.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.api.errors.TransportException;
+import org.eclipse.jgit.transport.UsernamePasswordCredentialsProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class EmbeddedGitHttpServerTest {
+
+  @TempDir private File tempDir;
+
+  private EmbeddedGitHttpServer serverUnderTest;
+
+  @AfterEach
+  void stopServer() {
+    if (serverUnderTest != null) {
+      serverUnderTest.stop();
+    }
+  }
+
+  @Test
+  void cloneAndPushWithoutAuthentication() throws GitAPIException, IOException {
+    serverUnderTest = new EmbeddedGitHttpServer();
+    serverUnderTest.start();
+
+    Git git =
+        Git.cloneRepository()
+            .setURI(serverUnderTest.getGitRepoURIAsHttp().toString())
+            .setDirectory(tempDir)
+            .call();
+    commitAndPush(git, null);
+
+    assertThat(serverUnderTest.getRepository("testRepo").exactRef("refs/heads/master"))
+        .isNotNull();
+    File secondClone = new File(tempDir, "second");
+    Git.cloneRepository()
+        .setURI(serverUnderTest.getGitRepoURIAsHttp().toString())
+        .setDirectory(secondClone)
+        .call();
+    assertThat(new File(secondClone, "test.txt")).exists();
+  }
+
+  @Test
+  void cloneWithAuthenticationFailedWithoutCredential() {
+    serverUnderTest =
+        new EmbeddedGitHttpServer(new BasicAuthenticationCredentials("testuser", "testPassword"));
+    serverUnderTest.start();
+
+    TransportException expectedException =
+        catchThrowableOfType(
+            () ->
+                Git.cloneRepository()
+                    .setURI(serverUnderTest.getGitRepoURIAsHttp().toString())
+                    .setDirectory(tempDir)
+                    .call(),
+            TransportException.class);
+    assertThat(expectedException).isNotNull();
+    assertThat(expectedException).hasMessageContaining("Authentication is required");
+  }
+
+  @Test
+  void cloneWithAuthentication() throws GitAPIException, IOException {
+    serverUnderTest =
+        new EmbeddedGitHttpServer(new BasicAuthenticationCredentials("testuser", "testPassword"));
+    serverUnderTest.start();
+
+    UsernamePasswordCredentialsProvider credentialsProvider =
+        new UsernamePasswordCredentialsProvider(
+            serverUnderTest.getBasicAuthCredentials().getUsername(),
+            serverUnderTest.getBasicAuthCredentials().getPassword());
+    Git git =
+        Git.cloneRepository()
+            .setURI(serverUnderTest.getGitRepoURIAsHttp().toString())
+            .setDirectory(tempDir)
+            .setCredentialsProvider(credentialsProvider)
+            .call();
+
+    commitAndPush(git, credentialsProvider);
+  }
+
+  @Test
+  void setupMultipleGitReposInDirectory(@TempDir Path repositoryDirectory)
+      throws GitAPIException, IOException {
+    serverUnderTest =
+        new EmbeddedGitHttpServer()
+            .withGitRepo("defaultRepo")
+            .withGitRepos("repoA")
+            .withRepositoryDirectory(repositoryDirectory);
+    serverUnderTest.start();
+
+    assertThat(serverUnderTest.getGitRepoNames()).containsExactly("defaultRepo", "repoA");
+    Git git =
+        Git.cloneRepository()
+            .setURI(serverUnderTest.getGitRepoURIAsHttp("repoA").toString())
+            .setDirectory(tempDir)
+            .call();
+    commitAndPush(git, null);
+
+    assertThat(repositoryDirectory.resolve("defaultRepo.git")).isDirectory();
+    assertThat(serverUnderTest.getRepository("repoA").exactRef("refs/heads/master")).isNotNull();
+  }
+
+  private void commitAndPush(Git git, UsernamePasswordCredentialsProvider credentialsProvider)
+      throws IOException, GitAPIException {
+    new File(git.getRepository().getWorkTree(), "test.txt").createNewFile();
+    git.add().addFilepattern(".").call();
+    git.commit().setSign(false).setMessage("test").call();
+    git.push().setCredentialsProvider(credentialsProvider).call();
+  }
+}
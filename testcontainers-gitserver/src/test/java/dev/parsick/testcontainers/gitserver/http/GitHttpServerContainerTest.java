@@ -3,9 +3,22 @@ package dev.parsick.testcontainers.gitserver.http;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.catchThrowableOfType;
 
+import com.github.dockerjava.api.command.InspectImageResponse;
+import dev.parsick.testcontainers.gitserver.GitRepoConfig;
+import dev.parsick.testcontainers.gitserver.GitRepoImport;
 import dev.parsick.testcontainers.gitserver.GitServerVersions;
+import dev.parsick.testcontainers.gitserver.StartupTimeline;
 import java.io.File;
 import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.KeyStoreException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.commons.io.FileUtils;
 import org.assertj.core.api.ThrowableAssert;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.errors.GitAPIException;
@@ -16,6 +29,7 @@ import org.junit.jupiter.api.io.CleanupMode;
 import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
+import org.testcontainers.DockerClientFactory;
 import org.testcontainers.utility.DockerImageName;
 
 public class GitHttpServerContainerTest {
@@ -90,6 +104,419 @@ public class GitHttpServerContainerTest {
     assertGitPull(git, credentialsProvider);
   }
 
+  @Test
+  void cloneWithAuthenticationOfMultipleUsers() throws GitAPIException {
+    GitHttpServerContainer containerUnderTest =
+        new GitHttpServerContainer(LATEST_GIT_SERVER_VERSION)
+            .withBasicAuthCredentials(
+                new BasicAuthenticationCredentials("alice", "alicePassword"),
+                new BasicAuthenticationCredentials("bob", "bobPassword"));
+    containerUnderTest.start();
+
+    assertThat(containerUnderTest.getAllBasicAuthCredentials()).hasSize(2);
+    for (BasicAuthenticationCredentials credentials :
+        containerUnderTest.getAllBasicAuthCredentials()) {
+      assertThat(
+              Git.lsRemoteRepository()
+                  .setRemote(containerUnderTest.getGitRepoURIAsHttp().toString())
+                  .setCredentialsProvider(
+                      new UsernamePasswordCredentialsProvider(
+                          credentials.getUsername(), credentials.getPassword()))
+                  .call())
+          .isEmpty();
+    }
+    ThrowableAssert.ThrowingCallable wrongPassword =
+        () ->
+            Git.lsRemoteRepository()
+                .setRemote(containerUnderTest.getGitRepoURIAsHttp().toString())
+                .setCredentialsProvider(
+                    new UsernamePasswordCredentialsProvider("alice", "bobPassword"))
+                .call();
+    assertThat(catchThrowableOfType(wrongPassword, TransportException.class)).isNotNull();
+  }
+
+  @Test
+  void basicAuthenticationUsesSameImage() {
+    GitHttpServerContainer containerUnderTest =
+        new GitHttpServerContainer(
+            LATEST_GIT_SERVER_VERSION,
+            new BasicAuthenticationCredentials("testuser", "testPassword"));
+    containerUnderTest.start();
+
+    assertThat(containerUnderTest.getDockerImageName())
+        .isEqualTo(GitHttpServerImage.imageName(LATEST_GIT_SERVER_VERSION));
+  }
+
+  @Test
+  void invalidBasicAuthUsername() {
+    GitHttpServerContainer containerUnderTest =
+        new GitHttpServerContainer(LATEST_GIT_SERVER_VERSION);
+
+    assertThat(
+            catchThrowableOfType(
+                () ->
+                    containerUnderTest.withBasicAuthCredentials(
+                        new BasicAuthenticationCredentials("test:user", "testPassword")),
+                IllegalArgumentException.class))
+        .isNotNull();
+  }
+
+  @Test
+  void invalidGitRepoName() {
+    GitHttpServerContainer containerUnderTest =
+        new GitHttpServerContainer(LATEST_GIT_SERVER_VERSION);
+
+    assertThat(
+            catchThrowableOfType(
+                () -> containerUnderTest.withGitRepo("../other"), IllegalArgumentException.class))
+        .isNotNull();
+    assertThat(
+            catchThrowableOfType(
+                () -> containerUnderTest.withGitRepos("repoA", ".snapshot"),
+                IllegalArgumentException.class))
+        .isNotNull();
+  }
+
+  @Test
+  void setupMultipleGitRepos() throws GitAPIException, IOException {
+    GitHttpServerContainer containerUnderTest =
+        new GitHttpServerContainer(LATEST_GIT_SERVER_VERSION)
+            .withGitRepo("defaultRepo")
+            .withGitRepos("repoA", "repoB");
+    containerUnderTest.start();
+
+    assertThat(containerUnderTest.getGitRepoNames())
+        .containsExactly("defaultRepo", "repoA", "repoB");
+    for (String gitRepoName : containerUnderTest.getGitRepoNames()) {
+      URI gitRepoURI = containerUnderTest.getGitRepoURIAsHttp(gitRepoName);
+      assertThat(gitRepoURI.getPath()).isEqualTo("/git/" + gitRepoName + ".git");
+      File cloneDir = new File(tempDir, gitRepoName);
+      Git git = Git.cloneRepository().setURI(gitRepoURI.toString()).setDirectory(cloneDir).call();
+      new File(cloneDir, "test.txt").createNewFile();
+      git.add().addFilepattern(".").call();
+      git.commit().setSign(false).setMessage("test").call();
+      git.push().call();
+    }
+  }
+
+  @Test
+  void copyExistingGitRepo(@TempDir File sampleRepo) throws GitAPIException, IOException {
+    initSampleRepo(sampleRepo);
+    GitHttpServerContainer containerUnderTest =
+        new GitHttpServerContainer(LATEST_GIT_SERVER_VERSION)
+            .withCopyExistingGitRepoToContainer(sampleRepo.getAbsolutePath());
+    containerUnderTest.start();
+
+    Git.cloneRepository()
+        .setURI(containerUnderTest.getGitRepoURIAsHttp().toString())
+        .setDirectory(tempDir)
+        .call();
+
+    assertThat(new File(tempDir, "testFile")).exists();
+  }
+
+  @Test
+  void importExistingGitRepoToInMemoryStorage(@TempDir File sampleRepo)
+      throws GitAPIException, IOException {
+    initSampleRepo(sampleRepo);
+    GitHttpServerContainer containerUnderTest =
+        new GitHttpServerContainer(LATEST_GIT_SERVER_VERSION)
+            .withInMemoryStorage("64m")
+            .withCopyExistingGitRepoToContainer(
+                GitRepoImport.fromPath(sampleRepo.getAbsolutePath()));
+    containerUnderTest.start();
+
+    Git git =
+        Git.cloneRepository()
+            .setURI(containerUnderTest.getGitRepoURIAsHttp().toString())
+            .setDirectory(tempDir)
+            .call();
+
+    assertThat(new File(tempDir, "testFile")).exists();
+    assertGitPull(git);
+  }
+
+  @Test
+  void resetToSnapshot() throws GitAPIException, IOException {
+    GitHttpServerContainer containerUnderTest =
+        new GitHttpServerContainer(LATEST_GIT_SERVER_VERSION);
+    containerUnderTest.start();
+    containerUnderTest.snapshot();
+
+    Git git =
+        Git.cloneRepository()
+            .setURI(containerUnderTest.getGitRepoURIAsHttp().toString())
+            .setDirectory(tempDir)
+            .call();
+    assertGitPull(git);
+    assertThat(
+            Git.lsRemoteRepository()
+                .setRemote(containerUnderTest.getGitRepoURIAsHttp().toString())
+                .call())
+        .isNotEmpty();
+
+    containerUnderTest.resetToSnapshot();
+
+    assertThat(
+            Git.lsRemoteRepository()
+                .setRemote(containerUnderTest.getGitRepoURIAsHttp().toString())
+                .call())
+        .isEmpty();
+    String snapshotURI =
+        containerUnderTest.getGitRepoURIAsHttp().toString().replace("/git/", "/git/.snapshot/");
+    assertThat(
+            catchThrowableOfType(
+                () -> Git.lsRemoteRepository().setRemote(snapshotURI).call(),
+                TransportException.class))
+        .isNotNull();
+  }
+
+  @Test
+  void applyRepoConfig() throws IOException, InterruptedException {
+    GitHttpServerContainer containerUnderTest =
+        new GitHttpServerContainer(LATEST_GIT_SERVER_VERSION)
+            .withRepoConfig(new GitRepoConfig().withPackThreads(2).withRepackWriteBitmaps(true));
+    containerUnderTest.start();
+
+    String config =
+        containerUnderTest
+            .execInContainer("git", "config", "--file", "/srv/git/testRepo.git/config", "--list")
+            .getStdout();
+
+    assertThat(config)
+        .contains("http.receivepack=true", "pack.threads=2", "repack.writebitmaps=true");
+  }
+
+  @Test
+  void imageNameIsContentHash() {
+    String imageName = GitHttpServerImage.imageName(LATEST_GIT_SERVER_VERSION);
+
+    assertThat(imageName)
+        .startsWith("testcontainers-git/http:")
+        .isEqualTo(GitHttpServerImage.imageName(LATEST_GIT_SERVER_VERSION))
+        .isNotEqualTo(GitHttpServerImage.imageName(GitServerVersions.V2_49.getDockerImageName()));
+  }
+
+  @Test
+  void reuseBuiltImage() {
+    String imageName = GitHttpServerImage.imageName(LATEST_GIT_SERVER_VERSION);
+    GitHttpServerContainer firstContainer = new GitHttpServerContainer(LATEST_GIT_SERVER_VERSION);
+    firstContainer.start();
+    InspectImageResponse builtImage =
+        DockerClientFactory.instance().client().inspectImageCmd(imageName).exec();
+    GitHttpServerContainer secondContainer = new GitHttpServerContainer(LATEST_GIT_SERVER_VERSION);
+    secondContainer.start();
+    InspectImageResponse reusedImage =
+        DockerClientFactory.instance().client().inspectImageCmd(imageName).exec();
+
+    assertThat(firstContainer.getDockerImageName()).isEqualTo(imageName);
+    assertThat(secondContainer.getDockerImageName()).isEqualTo(imageName);
+    assertThat(reusedImage.getId()).isEqualTo(builtImage.getId());
+    assertThat(reusedImage.getCreated()).isEqualTo(builtImage.getCreated());
+    assertThat(secondContainer.getContainerInfo().getImageId()).isEqualTo(builtImage.getId());
+  }
+
+  @Test
+  void startupTimelineContainsImageBuild() {
+    GitHttpServerContainer containerUnderTest =
+        new GitHttpServerContainer(LATEST_GIT_SERVER_VERSION);
+    containerUnderTest.start();
+
+    StartupTimeline startupTimeline = containerUnderTest.getStartupTimeline();
+
+    assertThat(startupTimeline.getPhases())
+        .extracting(StartupTimeline.Phase::getName)
+        .containsExactly(
+            "configure",
+            "image",
+            "create",
+            "start",
+            "wait",
+            "provisioning",
+            "configure-git-repository");
+    assertThat(startupTimeline.getSlowestPhase()).isPresent();
+  }
+
+  @Test
+  void applyHttpConcurrencySetting() throws IOException, InterruptedException, GitAPIException {
+    GitHttpServerContainer containerUnderTest =
+        new GitHttpServerContainer(LATEST_GIT_SERVER_VERSION)
+            .withHttpConcurrencySetting(
+                new HttpConcurrencySetting()
+                    .withWorkerProcesses(2)
+                    .withWorkerConnections(2048)
+                    .withFcgiwrapChildren(4)
+                    .withResponseBuffers(8, "1m")
+                    .withRequestBuffering(false));
+    containerUnderTest.start();
+
+    String processes = containerUnderTest.execInContainer("ps").getStdout();
+    String nginxConfig = containerUnderTest.execInContainer("nginx", "-T").getStdout();
+
+    assertThat(processes.lines().filter(line -> line.contains("nginx: worker process")))
+        .hasSize(2);
+    assertThat(processes.lines().filter(line -> line.contains("fcgiwrap")).count())
+        .isGreaterThanOrEqualTo(4);
+    assertThat(nginxConfig)
+        .contains(
+            "worker_connections 2048;",
+            "fastcgi_buffers 8 1m;",
+            "fastcgi_request_buffering off;");
+    assertThat(
+            Git.lsRemoteRepository()
+                .setRemote(containerUnderTest.getGitRepoURIAsHttp().toString())
+                .call())
+        .isEmpty();
+  }
+
+  @Test
+  void applyMinimalResponseBuffers() throws IOException, InterruptedException, GitAPIException {
+    GitHttpServerContainer containerUnderTest =
+        new GitHttpServerContainer(LATEST_GIT_SERVER_VERSION)
+            .withHttpConcurrencySetting(new HttpConcurrencySetting().withResponseBuffers(3, "4k"));
+    containerUnderTest.start();
+
+    String nginxConfig = containerUnderTest.execInContainer("nginx", "-T").getStdout();
+
+    assertThat(nginxConfig).contains("fastcgi_buffers 3 4k;", "fastcgi_busy_buffers_size 4k;");
+    assertThat(
+            Git.lsRemoteRepository()
+                .setRemote(containerUnderTest.getGitRepoURIAsHttp().toString())
+                .call())
+        .isEmpty();
+  }
+
+  @Test
+  void invalidHttpConcurrencySetting() {
+    assertThat(
+            catchThrowableOfType(
+                () -> new HttpConcurrencySetting().withFcgiwrapChildren(0),
+                IllegalArgumentException.class))
+        .isNotNull();
+    assertThat(
+            catchThrowableOfType(
+                () -> new HttpConcurrencySetting().withResponseBuffers(8, "1 MB"),
+                IllegalArgumentException.class))
+        .isNotNull();
+    assertThat(
+            catchThrowableOfType(
+                () -> new HttpConcurrencySetting().withResponseBuffers(2, "1m"),
+                IllegalArgumentException.class))
+        .isNotNull();
+  }
+
+  @Test
+  void fetchRefsViaHttps() throws IOException, InterruptedException, KeyStoreException {
+    GitHttpServerContainer containerUnderTest =
+        new GitHttpServerContainer(LATEST_GIT_SERVER_VERSION)
+            .withHttps(new HttpsSetting().withSessionCache(false).withSessionTickets(false))
+            .withHttpConcurrencySetting(
+                new HttpConcurrencySetting().withKeepAlive(Duration.ofSeconds(5), 10));
+    containerUnderTest.start();
+
+    URI gitRepoURI = containerUnderTest.getGitRepoURIAsHttps();
+    HttpClient httpClient =
+        HttpClient.newBuilder().sslContext(containerUnderTest.getSslContext()).build();
+    HttpResponse<String> response =
+        httpClient.send(
+            HttpRequest.newBuilder(URI.create(gitRepoURI + "/info/refs?service=git-upload-pack"))
+                .build(),
+            HttpResponse.BodyHandlers.ofString());
+    String nginxConfig = containerUnderTest.execInContainer("nginx", "-T").getStdout();
+
+    assertThat(gitRepoURI.getScheme()).isEqualTo("https");
+    assertThat(response.statusCode()).isEqualTo(200);
+    assertThat(response.body()).startsWith("001e# service=git-upload-pack");
+    assertThat(nginxConfig)
+        .contains(
+            "ssl_session_cache off;",
+            "ssl_session_tickets off;",
+            "keepalive_timeout 5s;",
+            "keepalive_requests 10;");
+    assertThat(containerUnderTest.getTrustStore().getCertificate("testcontainers-git-ca"))
+        .isEqualTo(containerUnderTest.getCaCertificate());
+  }
+
+  @Test
+  void httpsIsDisabledByDefault() {
+    GitHttpServerContainer containerUnderTest =
+        new GitHttpServerContainer(LATEST_GIT_SERVER_VERSION);
+
+    assertThat(
+            catchThrowableOfType(
+                () -> containerUnderTest.getGitRepoURIAsHttps(), IllegalStateException.class))
+        .isNotNull();
+    assertThat(
+            catchThrowableOfType(
+                () -> new HttpsSetting().withProtocols("SSLv3"), IllegalArgumentException.class))
+        .isNotNull();
+  }
+
+  @Test
+  void accessLogContainsLatencyPerOperation() throws GitAPIException, IOException {
+    GitHttpServerContainer containerUnderTest =
+        new GitHttpServerContainer(LATEST_GIT_SERVER_VERSION);
+    containerUnderTest.start();
+    Git git =
+        Git.cloneRepository()
+            .setURI(containerUnderTest.getGitRepoURIAsHttp().toString())
+            .setDirectory(tempDir)
+            .call();
+    containerUnderTest.clearAccessLog();
+
+    assertGitPull(git);
+    git.fetch().call();
+
+    GitHttpAccessLog accessLog = containerUnderTest.getAccessLog();
+    assertThat(accessLog.getEntries())
+        .isNotEmpty()
+        .allMatch(entry -> entry.getStatus() == 200)
+        .allMatch(entry -> entry.getUpstreamResponseTime().isPresent());
+    assertThat(accessLog.getLatencyHistograms())
+        .containsKeys(
+            GitHttpAccessLog.Operation.RECEIVE_PACK_ADVERTISEMENT,
+            GitHttpAccessLog.Operation.RECEIVE_PACK,
+            GitHttpAccessLog.Operation.UPLOAD_PACK_ADVERTISEMENT);
+    LatencyHistogram receivePack =
+        accessLog.getLatencyHistogram(GitHttpAccessLog.Operation.RECEIVE_PACK);
+    assertThat(receivePack.getCount()).isEqualTo(1);
+    assertThat(receivePack.getPercentile(99)).isEqualTo(receivePack.getMax());
+    List<GitHttpAccessLog.Entry> streamedEntries = new ArrayList<>();
+    containerUnderTest.streamAccessLog(streamedEntries::add);
+    assertThat(streamedEntries).hasSameSizeAs(accessLog.getEntries());
+  }
+
+  @Test
+  void parseAccessLogLine() {
+    GitHttpAccessLog.Entry entry =
+        GitHttpAccessLog.Entry.parse(
+            "1760000000.123\tPOST\t/git/testRepo.git/git-upload-pack\tgit-upload-pack\t200"
+                + "\t512\t40960\t0.042\t0.040");
+
+    assertThat(entry.getOperation()).isEqualTo(GitHttpAccessLog.Operation.UPLOAD_PACK);
+    assertThat(entry.getRequestTime()).isEqualTo(Duration.ofMillis(42));
+    assertThat(entry.getUpstreamResponseTime()).contains(Duration.ofMillis(40));
+    assertThat(entry.getBytesSent()).isEqualTo(40960);
+    assertThat(entry.getTime().toEpochMilli()).isEqualTo(1760000000123L);
+  }
+
+  @Test
+  void latencyHistogramKeepsBoundedSample() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    int count = LatencyHistogram.RESERVOIR_SIZE * 10;
+    for (int i = count; i > 0; i--) {
+      histogram.record(Duration.ofMillis(i));
+    }
+
+    assertThat(histogram.getCount()).isEqualTo(count);
+    assertThat(histogram.getMax()).isEqualTo(Duration.ofMillis(count));
+    assertThat(histogram.getMean()).isEqualTo(Duration.ofMillis(count / 2).plusNanos(500_000));
+    assertThat(histogram.getBuckets().values().stream().mapToInt(Integer::intValue).sum())
+        .isEqualTo(count);
+    assertThat(histogram.getPercentile(50).toMillis())
+        .isBetween(count * 48L / 100, count * 52L / 100);
+  }
+
   @Test
   void enableHttpProxySetting() throws GitAPIException, IOException {
     GitHttpServerContainer containerUnderTest =
@@ -117,4 +544,16 @@ public class GitHttpServerContainerTest {
   private void assertGitPull(Git git) throws IOException, GitAPIException {
     assertGitPull(git, null);
   }
+
+  private void initSampleRepo(File sampleRepo) throws IOException, GitAPIException {
+    FileUtils.copyFileToDirectory(new File("src/test/resources/sampleRepo/testFile"), sampleRepo);
+
+    Git repo = Git.init().setDirectory(sampleRepo).setInitialBranch("main").call();
+    repo.add().addFilepattern("testFile").call();
+    repo.commit()
+        .setSign(false)
+        .setAuthor("Sandra Parsick", "sample@example.com")
+        .setMessage("init")
+        .call();
+  }
 }
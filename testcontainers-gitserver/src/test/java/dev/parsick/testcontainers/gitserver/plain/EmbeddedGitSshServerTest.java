@@ -0,0 +1,174 @@
+package dev.parsick.testcontainers.gitserver.plain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.jcraft.jsch.HostKey;
+import com.jcraft.jsch.JSch;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import org.apache.sshd.client.SshClient;
+import org.apache.sshd.client.keyverifier.AcceptAllServerKeyVerifier;
+import org.apache.sshd.client.session.ClientSession;
+import org.apache.sshd.common.NamedResource;
+import org.apache.sshd.common.util.security.SecurityUtils;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.TransportConfigCallback;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.api.errors.TransportException;
+import org.eclipse.jgit.transport.SshTransport;
+import org.eclipse.jgit.transport.ssh.jsch.JschConfigSessionFactory;
+import org.eclipse.jgit.transport.ssh.jsch.OpenSshConfig;
+import org.eclipse.jgit.util.FS;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class EmbeddedGitSshServerTest {
+
+  private static final Duration SSH_TIMEOUT = Duration.ofSeconds(10);
+
+  @TempDir private File tempDir;
+
+  private EmbeddedGitSshServer serverUnderTest;
+
+  @AfterEach
+  void stopServer() {
+    if (serverUnderTest != null) {
+      serverUnderTest.stop();
+    }
+  }
+
+  @Test
+  void cloneAndPushWithPassword() throws GitAPIException, IOException {
+    serverUnderTest = new EmbeddedGitSshServer().withGitPassword("secret");
+    serverUnderTest.start();
+
+    Git git =
+        Git.cloneRepository()
+            .setURI(serverUnderTest.getGitRepoURIAsSSH().toString())
+            .setDirectory(tempDir)
+            .setTransportConfigCallback(withPassword(serverUnderTest.getGitPassword()))
+            .call();
+    new File(tempDir, "test.txt").createNewFile();
+    git.add().addFilepattern(".").call();
+    git.commit().setSign(false).setMessage("test").call();
+    git.push().setTransportConfigCallback(withPassword(serverUnderTest.getGitPassword())).call();
+
+    assertThat(serverUnderTest.getRepository("testRepo").exactRef("refs/heads/master"))
+        .isNotNull();
+  }
+
+  @Test
+  void cloneWithWrongPasswordFails() {
+    serverUnderTest = new EmbeddedGitSshServer();
+    serverUnderTest.start();
+
+    assertThatThrownBy(
+            () ->
+                Git.cloneRepository()
+                    .setURI(serverUnderTest.getGitRepoURIAsSSH().toString())
+                    .setDirectory(tempDir)
+                    .setTransportConfigCallback(withPassword("wrong"))
+                    .call())
+        .isInstanceOf(TransportException.class);
+  }
+
+  @Test
+  void cloneWithSshKeyAuthAndStrictHostKeyChecking() throws GitAPIException {
+    serverUnderTest = new EmbeddedGitSshServer().withGitRepos("repoA").withSshKeyAuth();
+    serverUnderTest.start();
+
+    assertThat(serverUnderTest.getGitRepoURIAsSSH("repoA").getPath())
+        .isEqualTo("/srv/git/repoA.git");
+    assertThat(serverUnderTest.getKnownHosts())
+        .startsWith("[" + serverUnderTest.getHost() + "]:" + serverUnderTest.getPort())
+        .contains("ecdsa-sha2-nistp256");
+    Git.cloneRepository()
+        .setURI(serverUnderTest.getGitRepoURIAsSSH("repoA").toString())
+        .setDirectory(tempDir)
+        .setTransportConfigCallback(
+            withSshIdentity(serverUnderTest.getSshClientIdentity(), serverUnderTest.getHostKey()))
+        .call();
+
+    assertThat(new File(tempDir, ".git")).exists();
+  }
+
+  @Test
+  void authenticateWithEd25519Key() throws IOException, GeneralSecurityException {
+    serverUnderTest = new EmbeddedGitSshServer().withSshKeyAuth(SshKeyType.ED25519);
+    serverUnderTest.start();
+
+    assertThat(authenticate(SshKeyGenerator.cached(SshKeyType.ED25519))).isTrue();
+    assertThat(authenticate(SshKeyGenerator.cached(SshKeyType.ECDSA_P256))).isFalse();
+  }
+
+  /** JSch 0.1.x can not read Ed25519 keys, so the SSH client of Apache MINA SSHD is used. */
+  private boolean authenticate(SshIdentity sshIdentity)
+      throws IOException, GeneralSecurityException {
+    try (SshClient client = SshClient.setUpDefaultClient()) {
+      client.setServerKeyVerifier(AcceptAllServerKeyVerifier.INSTANCE);
+      client.start();
+      try (ClientSession session =
+          client
+              .connect("git", serverUnderTest.getHost(), serverUnderTest.getPort())
+              .verify(SSH_TIMEOUT)
+              .getSession()) {
+        SecurityUtils.loadKeyPairIdentities(
+                session,
+                NamedResource.ofName("generated"),
+                new ByteArrayInputStream(sshIdentity.getPrivateKey()),
+                null)
+            .forEach(session::addPublicKeyIdentity);
+        session.auth().await(SSH_TIMEOUT);
+        return session.isAuthenticated();
+      }
+    }
+  }
+
+  private static TransportConfigCallback withPassword(String password) {
+    return transport ->
+        ((SshTransport) transport)
+            .setSshSessionFactory(
+                new JschConfigSessionFactory() {
+                  @Override
+                  protected void configure(OpenSshConfig.Host hc, Session session) {
+                    session.setPassword(password);
+                    session.setConfig("StrictHostKeyChecking", "no");
+                  }
+                });
+  }
+
+  private TransportConfigCallback withSshIdentity(SshIdentity sshIdentity, SshHostKey hostKey) {
+    return transport ->
+        ((SshTransport) transport)
+            .setSshSessionFactory(
+                new JschConfigSessionFactory() {
+                  @Override
+                  protected JSch createDefaultJSch(FS fs) throws JSchException {
+                    JSch defaultJSch = super.createDefaultJSch(fs);
+                    defaultJSch.addIdentity(
+                        "git-server",
+                        sshIdentity.getPrivateKey(),
+                        sshIdentity.getPublicKey(),
+                        sshIdentity.getPassphrase());
+                    // known_hosts entries of ports other than 22 contain the port
+                    String host = "[" + hostKey.getHostname() + "]:" + serverUnderTest.getPort();
+                    defaultJSch
+                        .getHostKeyRepository()
+                        .add(new HostKey(host, hostKey.getKey()), null);
+                    return defaultJSch;
+                  }
+
+                  @Override
+                  protected void configure(OpenSshConfig.Host hc, Session session) {
+                    session.setConfig("StrictHostKeyChecking", "yes");
+                  }
+                });
+  }
+}